@@ -0,0 +1,51 @@
+package com.example.ecommerce.customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerMapperBenchmark {
+
+    private CustomerMapper mapper;
+    private CustomerRequest request;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        mapper = new CustomerMapper();
+        var address = new Address("Main Street", "12", "10115");
+        request = new CustomerRequest(null, "Jane", "Doe", "jane.doe@example.com", address);
+        customer = Customer.builder()
+                .id("customer-1")
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@example.com")
+                .address(address)
+                .build();
+    }
+
+    @Benchmark
+    public Customer mapCustomerRequestToCustomer() {
+        return mapper.mapCustomerRequestToCustomer(request);
+    }
+
+    @Benchmark
+    public CustomerResponse mapCustomerToCustomerResponse() {
+        return mapper.mapCustomerToCustomerResponse(customer);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ecommerce.events;
+
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary wire format of the shared events: a zero magic byte, the event type id and the schema version,
+ * followed by the Avro binary encoding of the record. JSON never starts with a zero byte, so readers can
+ * tell both formats apart during the migration. Records written with an older schema version are
+ * resolved against the current one.
+ */
+public final class EventCodec {
+
+    static final byte MAGIC = 0;
+    private static final int HEADER_LENGTH = 3;
+
+    private final RecordCodec recordCodec = new RecordCodec();
+    private final ThreadLocal<Map<String, ResolvingDecoder>> resolvers = ThreadLocal.withInitial(HashMap::new);
+
+    public static boolean isBinary(byte[] data) {
+        return data.length >= HEADER_LENGTH && data[0] == MAGIC;
+    }
+
+    public byte[] encode(EventType type, Object event) {
+        var out = new ByteArrayOutputStream(256);
+        out.write(MAGIC);
+        out.write(type.id());
+        out.write(type.currentVersion());
+        try {
+            var encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            recordCodec.write(type.currentSchema(), event, encoder);
+            encoder.flush();
+        } catch (IOException | ClassCastException e) {
+            throw new SerializationException("Cannot encode " + type.typeName(), e);
+        }
+        return out.toByteArray();
+    }
+
+    public EventType typeOf(byte[] data) {
+        return EventType.fromId(data[1]);
+    }
+
+    public <T> T decode(byte[] data, Class<T> targetType) {
+        var type = typeOf(data);
+        var writerVersion = Byte.toUnsignedInt(data[2]);
+        try {
+            var decoder = DecoderFactory.get().binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, null);
+            var resolver = resolver(type, writerVersion);
+            resolver.configure(decoder);
+            var event = recordCodec.read(type.currentSchema(), targetType, resolver);
+            resolver.drain();
+            return targetType.cast(event);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot decode " + type.typeName() + " v" + writerVersion, e);
+        }
+    }
+
+    private ResolvingDecoder resolver(EventType type, int writerVersion) throws IOException {
+        var key = type.typeName() + ":" + writerVersion;
+        var resolver = resolvers.get().get(key);
+        if (resolver == null) {
+            resolver = DecoderFactory.get().resolvingDecoder(type.schema(writerVersion), type.currentSchema(), null);
+            resolvers.get().put(key, resolver);
+        }
+        return resolver;
+    }
+}
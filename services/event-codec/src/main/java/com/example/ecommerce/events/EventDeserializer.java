@@ -0,0 +1,53 @@
+package com.example.ecommerce.events;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Value deserializer for the shared events. Binary records are decoded into the class mapped to their
+ * event type in {@code spring.json.type.mapping}; anything else is handed to Spring's
+ * {@link JsonDeserializer}, so records produced before the switch keep being consumed.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    private final EventCodec codec = new EventCodec();
+    private Map<EventType, Class<?>> targetTypes = new EnumMap<>(EventType.class);
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+        targetTypes = TypeMappings.byEventType(configs.get(JsonDeserializer.TYPE_MAPPINGS));
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (EventCodec.isBinary(data)) {
+            var type = codec.typeOf(data);
+            var targetType = targetTypes.get(type);
+            if (targetType == null) {
+                throw new SerializationException("No class mapped to event type " + type.typeName() + " on topic " + topic);
+            }
+            return codec.decode(data, targetType);
+        }
+        return headers == null ? jsonDeserializer.deserialize(topic, data) : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
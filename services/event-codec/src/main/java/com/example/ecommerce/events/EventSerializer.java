@@ -0,0 +1,52 @@
+package com.example.ecommerce.events;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Value serializer for the shared events. Classes mapped to a known {@link EventType} through
+ * {@code spring.json.type.mapping} are written in the binary format unless {@code event.codec.format} is
+ * {@code json}; everything else, and every record in JSON mode, goes through Spring's
+ * {@link JsonSerializer} exactly as before.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "event.codec.format";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private final EventCodec codec = new EventCodec();
+    private Map<String, EventType> eventTypes = Map.of();
+    private boolean binary = true;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        binary = !"json".equalsIgnoreCase(String.valueOf(configs.get(FORMAT_CONFIG)));
+        eventTypes = TypeMappings.byClassName(configs.get(JsonSerializer.TYPE_MAPPINGS));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        var type = binary ? eventTypes.get(data.getClass().getName()) : null;
+        if (type != null) {
+            return codec.encode(type, data);
+        }
+        return headers == null ? jsonSerializer.serialize(topic, data) : jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ecommerce.events;
+
+import org.apache.avro.Schema;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The events exchanged over Kafka. The type name is the token used in {@code spring.json.type.mapping},
+ * so the JSON and binary formats are configured by the same mapping. Every version of a schema stays on
+ * the classpath as {@code avro/<typeName>-v<version>.avsc} so that older records can still be read.
+ */
+public enum EventType {
+    ORDER_CONFIRMATION((byte) 1, "orderConfirmation", 1),
+    PAYMENT_CONFIRMATION((byte) 2, "paymentConfirmation", 1);
+
+    private final byte id;
+    private final String typeName;
+    private final int currentVersion;
+    private final Map<Integer, Schema> schemas = new ConcurrentHashMap<>();
+
+    EventType(byte id, String typeName, int currentVersion) {
+        this.id = id;
+        this.typeName = typeName;
+        this.currentVersion = currentVersion;
+    }
+
+    public byte id() {
+        return id;
+    }
+
+    public String typeName() {
+        return typeName;
+    }
+
+    public int currentVersion() {
+        return currentVersion;
+    }
+
+    public Schema currentSchema() {
+        return schema(currentVersion);
+    }
+
+    public Schema schema(int version) {
+        return schemas.computeIfAbsent(version, this::load);
+    }
+
+    private Schema load(int version) {
+        var resource = "/avro/" + typeName + "-v" + version + ".avsc";
+        try (var in = EventType.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new SerializationException("Unknown schema version " + version + " of " + typeName);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot read schema " + resource, e);
+        }
+    }
+
+    public static EventType fromId(byte id) {
+        return Arrays.stream(values())
+                .filter(type -> type.id == id)
+                .findFirst()
+                .orElseThrow(() -> new SerializationException("Unknown event type id " + id));
+    }
+
+    public static EventType fromTypeName(String typeName) {
+        return Arrays.stream(values())
+                .filter(type -> type.typeName.equals(typeName))
+                .findFirst()
+                .orElse(null);
+    }
+}
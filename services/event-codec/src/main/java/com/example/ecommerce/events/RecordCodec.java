@@ -0,0 +1,261 @@
+package com.example.ecommerce.events;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes Java records straight to Avro binary and reads them back, walking the schema instead of building
+ * intermediate generic records. Record components are matched to schema fields by name, ignoring case,
+ * so each service can keep its own event classes.
+ */
+final class RecordCodec {
+
+    private static final String DECIMAL = "com.example.ecommerce.events.Decimal";
+
+    private final Map<Class<?>, RecordPlan> plans = new ConcurrentHashMap<>();
+
+    void write(Schema schema, Object value, Encoder out) throws IOException {
+        switch (schema.getType()) {
+            case RECORD -> {
+                if (DECIMAL.equals(schema.getFullName())) {
+                    var decimal = (BigDecimal) value;
+                    out.writeBytes(decimal.unscaledValue().toByteArray());
+                    out.writeInt(decimal.scale());
+                } else {
+                    writeRecord(schema, value, out);
+                }
+            }
+            case UNION -> {
+                var index = unionIndex(schema, value);
+                out.writeIndex(index);
+                write(schema.getTypes().get(index), value, out);
+            }
+            case STRING -> out.writeString(value.toString());
+            case INT -> out.writeInt(((Number) value).intValue());
+            case LONG -> out.writeLong(((Number) value).longValue());
+            case DOUBLE -> out.writeDouble(((Number) value).doubleValue());
+            case FLOAT -> out.writeFloat(((Number) value).floatValue());
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+            case ENUM -> out.writeEnum(schema.getEnumOrdinal(((Enum<?>) value).name()));
+            case ARRAY -> {
+                var items = value == null ? List.of() : (Collection<?>) value;
+                out.writeArrayStart();
+                out.setItemCount(items.size());
+                for (var item : items) {
+                    out.startItem();
+                    write(schema.getElementType(), item, out);
+                }
+                out.writeArrayEnd();
+            }
+            case BYTES -> out.writeBytes((byte[]) value);
+            case NULL -> out.writeNull();
+            default -> throw new SerializationException("Unsupported schema type " + schema.getType());
+        }
+    }
+
+    private void writeRecord(Schema schema, Object value, Encoder out) throws IOException {
+        var plan = plan(value.getClass());
+        for (var field : schema.getFields()) {
+            var fieldValue = plan.get(value, field.name());
+            if (fieldValue == null && !isNullable(field.schema())) {
+                throw new SerializationException("Field " + schema.getName() + "." + field.name() + " must not be null");
+            }
+            write(field.schema(), fieldValue, out);
+        }
+    }
+
+    /**
+     * Reads a value of the reader {@code schema}. A {@code null} java type reads and discards the value,
+     * which is used for fields the target record does not have.
+     */
+    Object read(Schema schema, Type javaType, ResolvingDecoder in) throws IOException {
+        return switch (schema.getType()) {
+            case RECORD -> {
+                if (DECIMAL.equals(schema.getFullName())) {
+                    byte[] unscaled = null;
+                    var scale = 0;
+                    for (var field : in.readFieldOrder()) {
+                        if (field.name().equals("unscaled")) {
+                            unscaled = bytes(in.readBytes(null));
+                        } else {
+                            scale = in.readInt();
+                        }
+                    }
+                    yield new BigDecimal(new BigInteger(unscaled), scale);
+                }
+                yield readRecord(schema, javaType == null ? null : rawClass(javaType), in);
+            }
+            case UNION -> read(schema.getTypes().get(in.readIndex()), javaType, in);
+            case STRING -> in.readString();
+            case INT -> in.readInt();
+            case LONG -> in.readLong();
+            case DOUBLE -> in.readDouble();
+            case FLOAT -> in.readFloat();
+            case BOOLEAN -> in.readBoolean();
+            case ENUM -> {
+                var symbol = schema.getEnumSymbols().get(in.readEnum());
+                yield javaType instanceof Class<?> type && type.isEnum() ? enumValue(type, symbol) : symbol;
+            }
+            case ARRAY -> {
+                var elementType = javaType instanceof ParameterizedType parameterized
+                        ? parameterized.getActualTypeArguments()[0]
+                        : null;
+                var items = new ArrayList<>();
+                for (long count = in.readArrayStart(); count != 0; count = in.arrayNext()) {
+                    for (long i = 0; i < count; i++) {
+                        items.add(read(schema.getElementType(), elementType, in));
+                    }
+                }
+                yield items;
+            }
+            case BYTES -> bytes(in.readBytes(null));
+            case NULL -> {
+                in.readNull();
+                yield null;
+            }
+            default -> throw new SerializationException("Unsupported schema type " + schema.getType());
+        };
+    }
+
+    private Object readRecord(Schema schema, Class<?> type, ResolvingDecoder in) throws IOException {
+        var plan = type == null ? null : plan(type);
+        var args = plan == null ? null : new Object[plan.components.length];
+        for (var field : in.readFieldOrder()) {
+            var index = plan == null ? -1 : plan.indexOf(field.name());
+            var value = read(field.schema(), index < 0 ? null : plan.components[index].getGenericType(), in);
+            if (index >= 0) {
+                args[index] = value;
+            }
+        }
+        return plan == null ? null : plan.construct(args);
+    }
+
+    private RecordPlan plan(Class<?> type) {
+        return plans.computeIfAbsent(type, RecordPlan::new);
+    }
+
+    private static int unionIndex(Schema union, Object value) {
+        var types = union.getTypes();
+        for (int i = 0; i < types.size(); i++) {
+            if ((value == null) == (types.get(i).getType() == Schema.Type.NULL)) {
+                return i;
+            }
+        }
+        throw new SerializationException("No branch of " + union + " accepts " + value);
+    }
+
+    private static boolean isNullable(Schema schema) {
+        return schema.getType() == Schema.Type.NULL
+                || schema.getType() == Schema.Type.ARRAY
+                || schema.getType() == Schema.Type.UNION && schema.getTypes().stream().anyMatch(type -> type.getType() == Schema.Type.NULL);
+    }
+
+    private static Class<?> rawClass(Type type) {
+        return type instanceof ParameterizedType parameterized ? (Class<?>) parameterized.getRawType() : (Class<?>) type;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(Class<?> type, String symbol) {
+        return Enum.valueOf((Class<? extends Enum>) type, symbol);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static final class RecordPlan {
+
+        private final RecordComponent[] components;
+        private final Method[] accessors;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final Constructor<?> constructor;
+
+        RecordPlan(Class<?> type) {
+            if (!type.isRecord()) {
+                throw new SerializationException(type.getName() + " is not a record");
+            }
+            components = type.getRecordComponents();
+            accessors = new Method[components.length];
+            var parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                accessors[i] = components[i].getAccessor();
+                accessors[i].setAccessible(true);
+                parameterTypes[i] = components[i].getType();
+                indexes.put(components[i].getName().toLowerCase(Locale.ROOT), i);
+            }
+            try {
+                constructor = type.getDeclaredConstructor(parameterTypes);
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new SerializationException("No canonical constructor on " + type.getName(), e);
+            }
+        }
+
+        int indexOf(String fieldName) {
+            return indexes.getOrDefault(fieldName.toLowerCase(Locale.ROOT), -1);
+        }
+
+        Object get(Object record, String fieldName) {
+            var index = indexOf(fieldName);
+            if (index < 0) {
+                return null;
+            }
+            try {
+                return accessors[index].invoke(record);
+            } catch (ReflectiveOperationException e) {
+                throw new SerializationException("Cannot read " + fieldName + " of " + record.getClass().getName(), e);
+            }
+        }
+
+        Object construct(Object[] args) {
+            for (int i = 0; i < args.length; i++) {
+                args[i] = adapt(args[i], components[i].getType());
+            }
+            try {
+                return constructor.newInstance(args);
+            } catch (ReflectiveOperationException e) {
+                throw new SerializationException("Cannot create " + constructor.getDeclaringClass().getName(), e);
+            }
+        }
+
+        private static Object adapt(Object value, Class<?> type) {
+            if (value == null) {
+                if (!type.isPrimitive()) {
+                    return null;
+                }
+                return type == boolean.class ? Boolean.FALSE : adapt(0, type);
+            }
+            if (value instanceof Number number) {
+                if (type == int.class || type == Integer.class) return number.intValue();
+                if (type == long.class || type == Long.class) return number.longValue();
+                if (type == double.class || type == Double.class) return number.doubleValue();
+                if (type == float.class || type == Float.class) return number.floatValue();
+            }
+            if (type == String.class && value instanceof CharSequence text) {
+                return text.toString();
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ecommerce.events;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the {@code token:className} pairs of {@code spring.json.type.mapping} and keeps those whose token
+ * names an {@link EventType}.
+ */
+final class TypeMappings {
+
+    private TypeMappings() {
+    }
+
+    static Map<String, EventType> byClassName(Object mappings) {
+        var eventTypes = new HashMap<String, EventType>();
+        parse(mappings).forEach((token, className) -> {
+            var type = EventType.fromTypeName(token);
+            if (type != null) {
+                eventTypes.put(className, type);
+            }
+        });
+        return eventTypes;
+    }
+
+    static Map<EventType, Class<?>> byEventType(Object mappings) {
+        var targetTypes = new EnumMap<EventType, Class<?>>(EventType.class);
+        parse(mappings).forEach((token, className) -> {
+            var type = EventType.fromTypeName(token);
+            if (type != null) {
+                try {
+                    targetTypes.put(type, ClassUtils.forName(className, ClassUtils.getDefaultClassLoader()));
+                } catch (ClassNotFoundException e) {
+                    throw new SerializationException("Cannot load " + className + " mapped to " + token, e);
+                }
+            }
+        });
+        return targetTypes;
+    }
+
+    private static Map<String, String> parse(Object mappings) {
+        var parsed = new HashMap<String, String>();
+        if (mappings == null) {
+            return parsed;
+        }
+        for (var mapping : StringUtils.commaDelimitedListToStringArray(mappings.toString())) {
+            var split = mapping.split(":");
+            if (split.length == 2) {
+                parsed.put(split[0].trim(), split[1].trim());
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ecommerce.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Compares bytes on the wire and serialization/deserialization CPU time of the binary format against
+ * the JSON serde used before, for order confirmations with a growing number of products:
+ * <pre>
+ * mvn test -Dtest=EventCodecBenchmark -Dbenchmark.events=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.events", matches = "true")
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "order-topic";
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    @Test
+    void compareBinaryAndJson() {
+        var mapping = "orderConfirmation:" + EventCodecTests.ProducedOrder.class.getName();
+        var binarySerializer = new EventSerializer();
+        binarySerializer.configure(Map.of(JsonSerializer.TYPE_MAPPINGS, mapping), false);
+        var binaryDeserializer = new EventDeserializer();
+        binaryDeserializer.configure(Map.of(JsonDeserializer.TYPE_MAPPINGS, mapping), false);
+        var jsonSerializer = new JsonSerializer<Object>();
+        jsonSerializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        var jsonDeserializer = new JsonDeserializer<>(EventCodecTests.ProducedOrder.class, false);
+
+        for (int products : new int[]{1, 5, 25}) {
+            var order = order(products);
+            var binary = binarySerializer.serialize(TOPIC, order);
+            var json = jsonSerializer.serialize(TOPIC, order);
+
+            var binarySerialize = nanosPerOperation(() -> binarySerializer.serialize(TOPIC, order));
+            var jsonSerialize = nanosPerOperation(() -> jsonSerializer.serialize(TOPIC, order));
+            var binaryDeserialize = nanosPerOperation(() -> binaryDeserializer.deserialize(TOPIC, binary));
+            var jsonDeserialize = nanosPerOperation(() -> jsonDeserializer.deserialize(TOPIC, json));
+
+            System.out.printf("%2d products: binary %5d B, ser %6.0f ns, de %6.0f ns | json %5d B, ser %6.0f ns, de %6.0f ns%n",
+                    products,
+                    binary.length, binarySerialize, binaryDeserialize,
+                    json.length, jsonSerialize, jsonDeserialize);
+        }
+    }
+
+    private double nanosPerOperation(Runnable operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+        var start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / (double) MEASURED_ITERATIONS;
+    }
+
+    private EventCodecTests.ProducedOrder order(int products) {
+        var template = EventCodecTests.producedOrder();
+        return new EventCodecTests.ProducedOrder(
+                template.orderReference(),
+                template.totalAmount(),
+                template.paymentMethod(),
+                template.customer(),
+                IntStream.rangeClosed(1, products)
+                        .mapToObj(i -> new EventCodecTests.ProducedProduct(i, "Product " + i, "Description of product " + i, new BigDecimal("19.99"), i))
+                        .toList()
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.ecommerce.events;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public class EventCodecTests {
+
+    private static final String TOPIC = "order-topic";
+
+    private EventSerializer serializer;
+    private EventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new EventSerializer();
+        serializer.configure(Map.of(
+                JsonSerializer.TYPE_MAPPINGS, "orderConfirmation:" + ProducedOrder.class.getName()
+        ), false);
+        deserializer = new EventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.TYPE_MAPPINGS, "orderConfirmation:" + ConsumedOrder.class.getName()
+        ), false);
+    }
+
+    @Test
+    void binaryRecordShouldBeReadIntoTheConsumerOwnClasses() {
+        // Given
+        var order = producedOrder();
+
+        // When
+        var data = serializer.serialize(TOPIC, new RecordHeaders(), order);
+        var consumed = (ConsumedOrder) deserializer.deserialize(TOPIC, new RecordHeaders(), data);
+
+        // Then
+        Assertions.assertTrue(EventCodec.isBinary(data));
+        Assertions.assertEquals("ORD-1", consumed.orderReference());
+        Assertions.assertEquals(new BigDecimal("120.50"), consumed.totalAmount());
+        Assertions.assertEquals(Method.VISA, consumed.paymentMethod());
+        Assertions.assertEquals("Jane", consumed.customer().firstname());
+        Assertions.assertEquals(2, consumed.products().size());
+        Assertions.assertEquals(3.0, consumed.products().get(1).quantity());
+        Assertions.assertNull(consumed.products().get(1).description());
+    }
+
+    @Test
+    void jsonRecordShouldStillBeReadDuringTheMigration() {
+        // Given
+        var jsonSerializer = new EventSerializer();
+        jsonSerializer.configure(Map.of(
+                EventSerializer.FORMAT_CONFIG, "json",
+                JsonSerializer.TYPE_MAPPINGS, "orderConfirmation:" + ProducedOrder.class.getName()
+        ), false);
+        var headers = new RecordHeaders();
+
+        // When
+        var data = jsonSerializer.serialize(TOPIC, headers, producedOrder());
+        var consumed = (ConsumedOrder) deserializer.deserialize(TOPIC, headers, data);
+
+        // Then
+        Assertions.assertFalse(EventCodec.isBinary(data));
+        Assertions.assertEquals("ORD-1", consumed.orderReference());
+        Assertions.assertEquals(2, consumed.products().size());
+    }
+
+    @Test
+    void binaryRecordShouldBeSmallerThanJson() {
+        // Given
+        var jsonSerializer = new JsonSerializer<Object>();
+        var order = producedOrder();
+
+        // When
+        var binary = serializer.serialize(TOPIC, order);
+        var json = jsonSerializer.serialize(TOPIC, order);
+
+        // Then
+        Assertions.assertTrue(binary.length * 2 < json.length, binary.length + " bytes vs " + json.length + " bytes of JSON");
+    }
+
+    static ProducedOrder producedOrder() {
+        return new ProducedOrder(
+                "ORD-1",
+                new BigDecimal("120.50"),
+                Method.VISA,
+                new ProducedCustomer("c-1", "Jane", "Doe", "jane@example.com"),
+                List.of(
+                        new ProducedProduct(1, "Keyboard", "Mechanical keyboard", new BigDecimal("99.99"), 1),
+                        new ProducedProduct(2, "Cable", null, new BigDecimal("6.84"), 3)
+                )
+        );
+    }
+
+    enum Method {
+        PAYPAL, CREDIT_CARD, VISA, MASTER_CARD, BITCOIN
+    }
+
+    record ProducedCustomer(String id, String firstName, String lastName, String email) {
+    }
+
+    record ProducedProduct(Integer productId, String name, String description, BigDecimal price, double quantity) {
+    }
+
+    record ProducedOrder(String orderReference, BigDecimal totalAmount, Method paymentMethod, ProducedCustomer customer, List<ProducedProduct> products) {
+    }
+
+    record ConsumedCustomer(String id, String firstname, String lastname, String email) {
+    }
+
+    record ConsumedProduct(Integer productId, String name, String description, BigDecimal price, double quantity) {
+    }
+
+    record ConsumedOrder(String orderReference, BigDecimal totalAmount, Method paymentMethod, ConsumedCustomer customer, List<ConsumedProduct> products) {
+    }
+}
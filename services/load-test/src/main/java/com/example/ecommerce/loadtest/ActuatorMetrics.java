@@ -0,0 +1,71 @@
+package com.example.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads a timer from a service's {@code /actuator/metrics} endpoint. The services are started with
+ * p50/p95/p99 percentiles published for every meter, which appear as {@code <name>.percentile} gauges.
+ */
+final class ActuatorMetrics {
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+
+    ActuatorMetrics(HttpClient http, ObjectMapper objectMapper) {
+        this.http = http;
+        this.objectMapper = objectMapper;
+    }
+
+    Optional<HopReport.HopStats> timer(String hop, String baseUrl, String name, String... tags) throws IOException, InterruptedException {
+        var timer = read(baseUrl, name, tags);
+        if (timer.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new HopReport.HopStats(
+                hop,
+                (long) statistic(timer.get(), "COUNT"),
+                percentile(baseUrl, name, tags, "0.5"),
+                percentile(baseUrl, name, tags, "0.95"),
+                percentile(baseUrl, name, tags, "0.99"),
+                statistic(timer.get(), "MAX") * 1000
+        ));
+    }
+
+    private double percentile(String baseUrl, String name, String[] tags, String phi) throws IOException, InterruptedException {
+        var withPhi = Stream.concat(Stream.of(tags), Stream.of("phi:" + phi)).toArray(String[]::new);
+        return read(baseUrl, name + ".percentile", withPhi)
+                .map(gauge -> statistic(gauge, "VALUE") * 1000)
+                .orElse(Double.NaN);
+    }
+
+    private Optional<JsonNode> read(String baseUrl, String name, String... tags) throws IOException, InterruptedException {
+        var query = Stream.of(tags).map(tag -> "tag=" + tag).collect(Collectors.joining("&"));
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name + (query.isEmpty() ? "" : "?" + query)))
+                .GET()
+                .build();
+        var response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            return Optional.empty();
+        }
+        return Optional.of(objectMapper.readTree(response.body()));
+    }
+
+    private static double statistic(JsonNode metric, String statistic) {
+        for (var measurement : metric.path("measurements")) {
+            if (statistic.equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ecommerce.loadtest;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency percentiles per hop, either measured by the harness itself or read from a service's meters.
+ */
+final class HopReport {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Timer> measured = new ArrayList<>();
+    private final List<HopStats> reported = new ArrayList<>();
+
+    synchronized Timer timer(String hop) {
+        var timer = Timer.builder("loadtest.hop")
+                .tag("hop", hop)
+                .publishPercentiles(PERCENTILES)
+                // one window for the whole run instead of the default two minute decay
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+        if (!measured.contains(timer)) {
+            measured.add(timer);
+        }
+        return timer;
+    }
+
+    synchronized void add(HopStats stats) {
+        reported.add(stats);
+    }
+
+    synchronized void print(TrafficResult result, int emails) {
+        System.out.printf("%nOrders: %d succeeded, %d failed in %.1f s (%.1f orders/s), %d notification emails delivered%n",
+                result.succeeded(), result.failed(), result.elapsed().toMillis() / 1000.0, result.throughput(), emails);
+        System.out.println("Hops measured by the harness exclude warmup, hops read from service meters include it.");
+        System.out.printf("%n%-40s %8s %9s %9s %9s %9s%n", "hop", "count", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        measured.stream().map(HopReport::stats).forEach(HopReport::printRow);
+        reported.forEach(HopReport::printRow);
+    }
+
+    private static HopStats stats(Timer timer) {
+        var snapshot = timer.takeSnapshot();
+        var percentiles = snapshot.percentileValues();
+        return new HopStats(
+                timer.getId().getTag("hop"),
+                snapshot.count(),
+                percentiles[0].value(TimeUnit.MILLISECONDS),
+                percentiles[1].value(TimeUnit.MILLISECONDS),
+                percentiles[2].value(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS)
+        );
+    }
+
+    private static void printRow(HopStats stats) {
+        System.out.printf("%-40s %8d %9.1f %9.1f %9.1f %9.1f%n",
+                stats.hop(), stats.count(), stats.p50(), stats.p95(), stats.p99(), stats.max());
+    }
+
+    record HopStats(String hop, long count, double p50, double p95, double p99, double max) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.ecommerce.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a service's executable jar inside the harness JVM. Every service gets its own class loader whose
+ * parent is the platform class loader, so the services never see each other's classes (they share the
+ * {@code com.example.ecommerce} package) nor the harness's Kafka, Postgres and Mongo stand-ins.
+ */
+@Slf4j
+final class IsolatedService {
+
+    private static final String JAR_LAUNCHER = "org.springframework.boot.loader.launch.JarLauncher";
+
+    private final String name;
+    private final int port;
+    private final CompletableFuture<Void> failure = new CompletableFuture<>();
+
+    private IsolatedService(String name, int port) {
+        this.name = name;
+        this.port = port;
+    }
+
+    static IsolatedService start(String name, Path jar, int port, List<String> arguments) throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("No executable jar for " + name + " at " + jar + ", run mvn package in its directory first");
+        }
+        var service = new IsolatedService(name, port);
+        var classLoader = new URLClassLoader(name, new URL[]{jar.toUri().toURL()}, ClassLoader.getPlatformClassLoader());
+        var thread = new Thread(() -> service.launch(classLoader, arguments), name + "-main");
+        thread.setContextClassLoader(classLoader);
+        thread.start();
+        return service;
+    }
+
+    private void launch(ClassLoader classLoader, List<String> arguments) {
+        try {
+            classLoader.loadClass(JAR_LAUNCHER)
+                    .getMethod("main", String[].class)
+                    .invoke(null, (Object) arguments.toArray(String[]::new));
+        } catch (InvocationTargetException e) {
+            failure.completeExceptionally(e.getCause());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            failure.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * The embedded web server binds its port last, so an accepted connection means the context is up.
+     */
+    void awaitReady(Duration timeout) throws InterruptedException {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (failure.isCompletedExceptionally()) {
+                throw new IllegalStateException(name + " failed to start", failure.exceptionNow());
+            }
+            try (var socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 200);
+                log.info("{} is up on port {}", name, port);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(250);
+            }
+        }
+        throw new IllegalStateException(name + " did not start within " + timeout);
+    }
+
+    String name() {
+        return name;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+}
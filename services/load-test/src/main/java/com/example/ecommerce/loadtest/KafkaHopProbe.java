@@ -0,0 +1,91 @@
+package com.example.ecommerce.loadtest;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumes the event topics next to the notification service and records how long each record took from
+ * the producer's send (its create timestamp) until it could be fetched, which covers linger, the broker
+ * and the fetch. Records created before {@link #startRecording()} are counted but not timed.
+ */
+final class KafkaHopProbe implements AutoCloseable {
+
+    private final KafkaConsumer<byte[], byte[]> consumer;
+    private final Map<String, Timer> timers;
+    private final Map<String, AtomicLong> received = new ConcurrentHashMap<>();
+    private final Thread poller;
+    private volatile long recordAfterMillis = Long.MAX_VALUE;
+
+    private KafkaHopProbe(KafkaConsumer<byte[], byte[]> consumer, Map<String, Timer> timers) {
+        this.consumer = consumer;
+        this.timers = timers;
+        this.poller = Thread.ofPlatform().name("kafka-hop-probe").start(this::poll);
+    }
+
+    static KafkaHopProbe start(String bootstrapServers, List<String> topics, HopReport report) {
+        var consumer = new KafkaConsumer<byte[], byte[]>(Map.<String, Object>of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.GROUP_ID_CONFIG, "loadtest-probe",
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class
+        ));
+        consumer.subscribe(topics);
+        var timers = new ConcurrentHashMap<String, Timer>();
+        topics.forEach(topic -> timers.put(topic, report.timer("kafka -> consumer (" + topic + ")")));
+        return new KafkaHopProbe(consumer, timers);
+    }
+
+    void startRecording() {
+        recordAfterMillis = System.currentTimeMillis();
+    }
+
+    boolean awaitReceived(String topic, long expected, Duration timeout) throws InterruptedException {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        while (received(topic) < expected) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(100);
+        }
+        return true;
+    }
+
+    long received(String topic) {
+        return received.computeIfAbsent(topic, t -> new AtomicLong()).get();
+    }
+
+    private void poll() {
+        try {
+            while (true) {
+                for (var record : consumer.poll(Duration.ofMillis(200))) {
+                    var now = System.currentTimeMillis();
+                    if (record.timestamp() >= recordAfterMillis) {
+                        timers.get(record.topic()).record(now - record.timestamp(), TimeUnit.MILLISECONDS);
+                    }
+                    received.computeIfAbsent(record.topic(), t -> new AtomicLong()).incrementAndGet();
+                }
+            }
+        } catch (WakeupException e) {
+            // closing
+        } finally {
+            consumer.close();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        consumer.wakeup();
+        poller.join();
+    }
+}
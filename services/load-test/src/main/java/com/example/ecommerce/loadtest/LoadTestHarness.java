@@ -0,0 +1,137 @@
+package com.example.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Boots customer, product, payment, notification and order in this JVM against {@link StandIns} instead
+ * of Postgres, Mongo, Kafka, SMTP, Eureka and the config server, then drives order creation through them
+ * and prints throughput and latency percentiles per hop.
+ * <p>
+ * Build the service jars first ({@code mvn package -DskipTests} in each service directory), then run
+ * {@code java -jar target/load-test-0.0.1-SNAPSHOT.jar} from this directory. See {@link LoadTestProperties}
+ * for the knobs.
+ */
+@Slf4j
+public class LoadTestHarness {
+
+    private static final List<String> TOPICS = List.of("order-topic", "payment-topic");
+
+    public static void main(String[] args) throws Exception {
+        var properties = LoadTestProperties.fromSystemProperties();
+        try (var standIns = StandIns.start(properties, "order", "product", "payment")) {
+            var services = startServices(properties, standIns);
+            var http = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            var objectMapper = new ObjectMapper();
+            var testData = TestData.create(
+                    http,
+                    objectMapper,
+                    services.get("customer").baseUrl() + "/api/v1/customer",
+                    services.get("product").baseUrl() + "/api/v1/products",
+                    properties
+            );
+
+            var report = new HopReport();
+            TrafficResult result;
+            try (var probe = KafkaHopProbe.start(standIns.kafkaBootstrapServers(), TOPICS, report)) {
+                var traffic = new OrderTraffic(http, objectMapper, services.get("order").baseUrl() + "/api/v1/orders", testData, properties, report);
+                var warmup = traffic.run("warmup", properties.warmupOrders(), false);
+                probe.startRecording();
+                result = traffic.run("run", properties.orders(), true);
+
+                var expected = warmup.succeeded() + result.succeeded();
+                for (var topic : TOPICS) {
+                    if (!probe.awaitReceived(topic, expected, properties.drainTimeout())) {
+                        log.warn("Only {} of {} records arrived on {}", probe.received(topic), expected, topic);
+                    }
+                }
+            }
+
+            var metrics = new ActuatorMetrics(http, objectMapper);
+            var order = services.get("order").baseUrl();
+            for (var call : List.of("customer", "product", "payment")) {
+                metrics.timer("order -> " + call, order, "order.downstream.call", "call:" + call, "outcome:success").ifPresent(report::add);
+            }
+            metrics.timer("order -> kafka (order-topic ack)", order, "kafka.producer.send", "topic:order-topic", "outcome:success").ifPresent(report::add);
+            metrics.timer("payment -> kafka (payment-topic ack)", services.get("payment").baseUrl(), "kafka.producer.send", "topic:payment-topic", "outcome:success").ifPresent(report::add);
+
+            report.print(result, standIns.receivedEmails());
+        }
+        // the launched services keep non-daemon threads
+        System.exit(0);
+    }
+
+    private static Map<String, IsolatedService> startServices(LoadTestProperties properties, StandIns standIns) throws Exception {
+        var ports = new LinkedHashMap<String, Integer>();
+        for (var name : List.of("customer", "product", "payment", "notification", "order")) {
+            ports.put(name, PortAllocator.freePort());
+        }
+        var services = new LinkedHashMap<String, IsolatedService>();
+        for (var entry : ports.entrySet()) {
+            var name = entry.getKey();
+            var arguments = commonArguments(properties, standIns, name, entry.getValue());
+            switch (name) {
+                case "customer" -> arguments.add("--spring.data.mongodb.uri=" + standIns.mongoUri("customer"));
+                case "notification" -> {
+                    arguments.add("--spring.data.mongodb.uri=" + standIns.mongoUri("notification"));
+                    arguments.add("--spring.mail.host=localhost");
+                    arguments.add("--spring.mail.port=" + standIns.smtpPort());
+                    arguments.add("--spring.mail.username=" + StandIns.MAIL_USER);
+                    arguments.add("--spring.mail.password=" + StandIns.MAIL_USER);
+                }
+                case "order" -> {
+                    arguments.addAll(datasourceArguments(standIns, "order"));
+                    // straight to the services, there is no gateway or registry in the harness
+                    arguments.add("--application.config.customer-url=http://localhost:" + ports.get("customer") + "/api/v1/customer");
+                    arguments.add("--application.config.product-url=http://localhost:" + ports.get("product") + "/api/v1/products");
+                    arguments.add("--application.config.payment-url=http://localhost:" + ports.get("payment") + "/api/v1/payments");
+                }
+                default -> arguments.addAll(datasourceArguments(standIns, name));
+            }
+            var jar = properties.servicesDir().resolve(name).resolve("target").resolve(name + "-0.0.1-SNAPSHOT.jar");
+            services.put(name, IsolatedService.start(name, jar, entry.getValue(), arguments));
+        }
+        for (var service : services.values()) {
+            service.awaitReady(properties.startupTimeout());
+        }
+        return services;
+    }
+
+    private static List<String> commonArguments(LoadTestProperties properties, StandIns standIns, String name, int port) {
+        var configDir = properties.configDir().toAbsolutePath();
+        var kafka = standIns.kafkaBootstrapServers();
+        return new ArrayList<>(List.of(
+                "--server.port=" + port,
+                // the config server's files are read directly instead of being served
+                "--spring.cloud.config.enabled=false",
+                "--spring.config.import=optional:file:" + configDir.resolve("application.yaml") + ",optional:file:" + configDir.resolve(name + "-service.yaml"),
+                "--eureka.client.enabled=false",
+                "--spring.kafka.bootstrap-servers=" + kafka,
+                "--spring.kafka.producer.bootstrap-servers=" + kafka,
+                "--spring.kafka.consumer.bootstrap-servers=" + kafka,
+                "--management.endpoints.web.exposure.include=health,metrics",
+                "--management.metrics.distribution.percentiles.all=0.5,0.95,0.99",
+                "--management.metrics.distribution.expiry.all=1d",
+                "--management.metrics.distribution.buffer-length.all=1"
+        ));
+    }
+
+    private static List<String> datasourceArguments(StandIns standIns, String database) {
+        return List.of(
+                "--spring.datasource.url=" + standIns.jdbcUrl(database),
+                "--spring.datasource.username=" + StandIns.DATABASE_USER,
+                "--spring.datasource.password=" + StandIns.DATABASE_USER
+        );
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ecommerce.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Read from {@code -Dloadtest.*} system properties, e.g.
+ * {@code java -Dloadtest.orders=5000 -Dloadtest.concurrency=64 -jar load-test.jar}.
+ */
+record LoadTestProperties(
+        Path servicesDir,
+        Path configDir,
+        int orders,
+        int warmupOrders,
+        int concurrency,
+        double ratePerSecond,
+        int customers,
+        int products,
+        int linesPerOrder,
+        int partitions,
+        Duration startupTimeout,
+        Duration drainTimeout
+) {
+
+    static LoadTestProperties fromSystemProperties() {
+        var servicesDir = Path.of(System.getProperty("loadtest.services-dir", "..")).toAbsolutePath().normalize();
+        var properties = new LoadTestProperties(
+                servicesDir,
+                Path.of(System.getProperty("loadtest.config-dir", servicesDir.resolve("config-server/src/main/resources/configurations").toString())),
+                Integer.getInteger("loadtest.orders", 2000),
+                Integer.getInteger("loadtest.warmup-orders", 200),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Double.parseDouble(System.getProperty("loadtest.rate", "0")),
+                Integer.getInteger("loadtest.customers", 100),
+                Integer.getInteger("loadtest.products", 50),
+                Integer.getInteger("loadtest.lines-per-order", 3),
+                Integer.getInteger("loadtest.partitions", 6),
+                Duration.parse(System.getProperty("loadtest.startup-timeout", "PT3M")),
+                Duration.parse(System.getProperty("loadtest.drain-timeout", "PT30S"))
+        );
+        if (properties.linesPerOrder() > properties.products()) {
+            throw new IllegalArgumentException("loadtest.lines-per-order cannot exceed loadtest.products");
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends synchronous order creations from {@code concurrency} workers. With a target rate every order has a
+ * scheduled start and its latency is measured from that schedule, so a slow response also counts against
+ * the orders queued behind it instead of hiding them.
+ */
+@Slf4j
+final class OrderTraffic {
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+    private final URI orderUri;
+    private final TestData testData;
+    private final LoadTestProperties properties;
+    private final Timer latency;
+
+    OrderTraffic(HttpClient http, ObjectMapper objectMapper, String orderUrl, TestData testData, LoadTestProperties properties, HopReport report) {
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.orderUri = URI.create(orderUrl);
+        this.testData = testData;
+        this.properties = properties;
+        this.latency = report.timer("client -> order (POST /orders)");
+    }
+
+    TrafficResult run(String phase, int orders, boolean measured) {
+        log.info("Sending {} {} orders from {} workers", orders, phase, properties.concurrency());
+        var next = new AtomicInteger();
+        var succeeded = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var interval = properties.ratePerSecond() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / properties.ratePerSecond()) : 0;
+        var start = System.nanoTime();
+        try (var workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < properties.concurrency(); w++) {
+                workers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < orders) {
+                        var scheduled = interval > 0 ? start + i * interval : System.nanoTime();
+                        sleepUntil(scheduled);
+                        if (createOrder(phase + "-" + i)) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                        if (measured) {
+                            latency.record(System.nanoTime() - scheduled, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        return new TrafficResult(succeeded.get(), failed.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private boolean createOrder(String reference) {
+        var random = ThreadLocalRandom.current();
+        var products = new ArrayList<Map<String, Object>>();
+        random.ints(0, testData.productIds().size())
+                .distinct()
+                .limit(properties.linesPerOrder())
+                .forEach(index -> products.add(Map.<String, Object>of("productId", testData.productIds().get(index), "quantity", 1)));
+        var order = Map.of(
+                "reference", "LT-" + reference,
+                "amount", testData.productPrice().multiply(BigDecimal.valueOf(products.size())),
+                "paymentMethod", "VISA",
+                "customerId", testData.customerIds().get(random.nextInt(testData.customerIds().size())),
+                "products", products
+        );
+        try {
+            var request = HttpRequest.newBuilder(orderUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order)))
+                    .build();
+            var response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.debug("Order {} failed with {}: {}", reference, response.statusCode(), response.body());
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            log.debug("Order {} failed", reference, e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        var remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
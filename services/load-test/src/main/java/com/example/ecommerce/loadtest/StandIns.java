@@ -0,0 +1,95 @@
+package com.example.ecommerce.loadtest;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * The infrastructure the services expect, started inside the harness JVM: a single-node Kafka broker, an
+ * embedded Postgres with one database per service, a mongod and an SMTP sink.
+ */
+@Slf4j
+final class StandIns implements AutoCloseable {
+
+    static final String DATABASE_USER = "postgres";
+    static final String MAIL_USER = "loadtest";
+
+    private final EmbeddedKafkaKraftBroker kafka;
+    private final EmbeddedPostgres postgres;
+    private final TransitionWalker.ReachedState<RunningMongodProcess> mongo;
+    private final GreenMail smtp;
+
+    private StandIns(
+            EmbeddedKafkaKraftBroker kafka,
+            EmbeddedPostgres postgres,
+            TransitionWalker.ReachedState<RunningMongodProcess> mongo,
+            GreenMail smtp
+    ) {
+        this.kafka = kafka;
+        this.postgres = postgres;
+        this.mongo = mongo;
+        this.smtp = smtp;
+    }
+
+    static StandIns start(LoadTestProperties properties, String... databases) throws IOException, SQLException {
+        log.info("Starting embedded Kafka");
+        var kafka = new EmbeddedKafkaKraftBroker(1, properties.partitions(), "order-topic", "payment-topic");
+        kafka.afterPropertiesSet();
+
+        log.info("Starting embedded Postgres");
+        var postgres = EmbeddedPostgres.start();
+        try (var connection = postgres.getPostgresDatabase().getConnection();
+             var statement = connection.createStatement()) {
+            for (var database : databases) {
+                statement.execute("CREATE DATABASE \"" + database + "\"");
+            }
+        }
+
+        log.info("Starting embedded MongoDB");
+        var mongo = Mongod.instance().start(Version.Main.V7_0);
+
+        log.info("Starting SMTP sink");
+        var smtp = new GreenMail(new ServerSetup(PortAllocator.freePort(), "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+        smtp.setUser(MAIL_USER, MAIL_USER, MAIL_USER);
+        smtp.start();
+
+        return new StandIns(kafka, postgres, mongo, smtp);
+    }
+
+    String kafkaBootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    String jdbcUrl(String database) {
+        return postgres.getJdbcUrl(DATABASE_USER, database);
+    }
+
+    String mongoUri(String database) {
+        return "mongodb://localhost:" + mongo.current().getServerAddress().getPort() + "/" + database;
+    }
+
+    int smtpPort() {
+        return smtp.getSmtp().getPort();
+    }
+
+    int receivedEmails() {
+        return smtp.getReceivedMessages().length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        smtp.stop();
+        mongo.close();
+        postgres.close();
+        kafka.destroy();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Customers and products created through the services' own APIs before the run. Products are stocked
+ * far beyond what a run can purchase so that stock never becomes the bottleneck.
+ */
+record TestData(List<String> customerIds, List<Integer> productIds, BigDecimal productPrice) {
+
+    private static final BigDecimal PRODUCT_PRICE = new BigDecimal("10.00");
+    private static final long PRODUCT_STOCK = 1_000_000_000L;
+    // seeded by the product service's V2 migration
+    private static final long CATEGORY_ID = 1;
+
+    static TestData create(
+            HttpClient http,
+            ObjectMapper objectMapper,
+            String customerUrl,
+            String productUrl,
+            LoadTestProperties properties
+    ) throws IOException, InterruptedException {
+        var customerIds = new ArrayList<String>();
+        for (int i = 0; i < properties.customers(); i++) {
+            var body = post(http, objectMapper, customerUrl, Map.of(
+                    "firstName", "Load",
+                    "lastName", "Test " + i,
+                    "email", "loadtest+" + i + "@example.com",
+                    "address", Map.of("street", "Main Street", "houseNumber", String.valueOf(i), "zipCode", "10115")
+            ));
+            customerIds.add(body.replace("\"", ""));
+        }
+        var productIds = new ArrayList<Integer>();
+        for (int i = 0; i < properties.products(); i++) {
+            var body = post(http, objectMapper, productUrl, Map.of(
+                    "name", "Load test product " + i,
+                    "description", "Product created by the load test",
+                    "availableQuantity", PRODUCT_STOCK,
+                    "price", PRODUCT_PRICE,
+                    "categoryId", CATEGORY_ID
+            ));
+            productIds.add(Integer.valueOf(body));
+        }
+        return new TestData(List.copyOf(customerIds), List.copyOf(productIds), PRODUCT_PRICE);
+    }
+
+    private static String post(HttpClient http, ObjectMapper objectMapper, String url, Object body) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        var response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("POST " + url + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body().trim();
+    }
+}
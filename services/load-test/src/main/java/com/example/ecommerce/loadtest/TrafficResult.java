@@ -0,0 +1,10 @@
+package com.example.ecommerce.loadtest;
+
+import java.time.Duration;
+
+record TrafficResult(int succeeded, int failed, Duration elapsed) {
+
+    double throughput() {
+        return elapsed.isZero() ? 0 : succeeded * 1000.0 / elapsed.toMillis();
+    }
+}
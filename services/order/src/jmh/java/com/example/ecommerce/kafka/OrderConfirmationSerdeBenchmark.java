@@ -0,0 +1,68 @@
+package com.example.ecommerce.kafka;
+
+import com.example.ecommerce.customer.CustomerResponse;
+import com.example.ecommerce.order.PaymentMethod;
+import com.example.ecommerce.product.PurchaseResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * JSON serde of the confirmation written to the outbox and read back by the relay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderConfirmationSerdeBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private OrderConfirmation confirmation;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(OrderConfirmation.class);
+        reader = objectMapper.readerFor(OrderConfirmation.class);
+        confirmation = new OrderConfirmation(
+                "ORD-BENCH",
+                new BigDecimal("249.90"),
+                PaymentMethod.VISA,
+                new CustomerResponse("customer-1", "Jane", "Doe", "jane.doe@example.com"),
+                IntStream.rangeClosed(1, 5)
+                        .mapToObj(i -> new PurchaseResponse(i, "Product " + i, "Description of product " + i, new BigDecimal("49.98"), 1))
+                        .toList()
+        );
+        json = writer.writeValueAsBytes(confirmation);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(confirmation);
+    }
+
+    @Benchmark
+    public OrderConfirmation deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.orderline.OrderLine;
+import com.example.ecommerce.orderline.OrderLineMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMapperBenchmark {
+
+    private OrderMapper mapper;
+    private OrderRequest request;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        mapper = new OrderMapper(new OrderLineMapper());
+        request = new OrderRequest(
+                null,
+                "ORD-BENCH",
+                new BigDecimal("249.90"),
+                PaymentMethod.VISA,
+                "customer-1",
+                List.of()
+        );
+        order = Order.builder()
+                .id(1)
+                .reference("ORD-BENCH")
+                .totalAmount(new BigDecimal("249.90"))
+                .paymentMethod(PaymentMethod.VISA)
+                .customerId("customer-1")
+                .status(OrderStatus.CONFIRMED)
+                .createdDate(LocalDateTime.now())
+                .build();
+        order.setOrderLines(IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> OrderLine.builder()
+                        .id(i)
+                        .order(order)
+                        .productId(i)
+                        .quantity(i)
+                        .build())
+                .toList());
+    }
+
+    @Benchmark
+    public Order mapOrderRequestToOrder() {
+        return mapper.mapOrderRequestToOrder(request);
+    }
+
+    @Benchmark
+    public OrderResponse mapOrderToOrderResponse() {
+        return mapper.mapOrderToOrderResponse(order);
+    }
+
+    @Benchmark
+    public OrderDetailsResponse mapOrderToOrderDetailsResponse() {
+        return mapper.mapOrderToOrderDetailsResponse(order);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.ecommerce.orderline;
+
+import com.example.ecommerce.order.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderLineMapperBenchmark {
+
+    private OrderLineMapper mapper;
+    private OrderLineRequest request;
+    private OrderLine orderLine;
+
+    @Setup
+    public void setUp() {
+        mapper = new OrderLineMapper();
+        request = new OrderLineRequest(null, 1, 42, 3);
+        orderLine = OrderLine.builder()
+                .id(1)
+                .order(Order.builder().id(1).build())
+                .productId(42)
+                .quantity(3)
+                .build();
+    }
+
+    @Benchmark
+    public OrderLine mapOrderLineRequestToOrderLine() {
+        return mapper.mapOrderLineRequestToOrderLine(request);
+    }
+
+    @Benchmark
+    public OrderLineResponse mapOrderLineToOrderLineResponse() {
+        return mapper.mapOrderLineToOrderLineResponse(orderLine);
+    }
+}
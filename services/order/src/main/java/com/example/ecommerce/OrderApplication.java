@@ -2,16 +2,31 @@ package com.example.ecommerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
-@SpringBootApplication
-@EnableFeignClients
-@EnableJpaAuditing
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+// the reactive profile builds its own R2DBC pool; an auto-configured R2DBC transaction manager would
+// replace the JPA one that the blocking code relies on
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
 public class OrderApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(OrderApplication.class, args);
 	}
 
+	// audit dates keep the precision of their timestamp(6) columns, so a saved order carries the exact
+	// created_date that selects its partition
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider() {
+		return () -> Optional.of(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+	}
+
 }
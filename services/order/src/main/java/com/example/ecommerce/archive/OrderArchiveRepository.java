@@ -0,0 +1,87 @@
+package com.example.ecommerce.archive;
+
+import com.example.ecommerce.order.OrderDetailsResponse;
+import com.example.ecommerce.order.OrderResponse;
+import com.example.ecommerce.order.OrderStatus;
+import com.example.ecommerce.order.OrderStatusResponse;
+import com.example.ecommerce.order.PaymentMethod;
+import com.example.ecommerce.orderline.OrderLineResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read access to orders whose partition was archived. Archived orders no longer show up in listings,
+ * only lookups by ID, including status and batch lookups, fall back to this table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    private static final TypeReference<List<OrderLineResponse>> ORDER_LINES = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public Optional<OrderDetailsResponse> findDetailsById(Integer id) {
+        return jdbcTemplate.query("""
+                        select id, reference, total_amount, payment_method, customer_id, status, created_date, order_lines
+                        from customer_order_archive
+                        where id = ?""", this::mapRow, id)
+                .stream()
+                .findFirst();
+    }
+
+    public Optional<OrderStatusResponse> findStatusById(Integer id) {
+        return jdbcTemplate.query("""
+                        select id, reference, status, last_modified_date
+                        from customer_order_archive
+                        where id = ?""", (rs, rowNum) -> new OrderStatusResponse(
+                        rs.getInt("id"),
+                        rs.getString("reference"),
+                        rs.getString("status") == null ? null : OrderStatus.valueOf(rs.getString("status")),
+                        rs.getTimestamp("last_modified_date") == null ? null : rs.getTimestamp("last_modified_date").toLocalDateTime()
+                ), id)
+                .stream()
+                .findFirst();
+    }
+
+    public List<OrderDetailsResponse> findAllDetailsByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                        select id, reference, total_amount, payment_method, customer_id, status, created_date, order_lines
+                        from customer_order_archive
+                        where id = any(?)""",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                this::mapRow);
+    }
+
+    private OrderDetailsResponse mapRow(ResultSet rs, int rowNum) throws SQLException {
+        var order = new OrderResponse(
+                rs.getInt("id"),
+                rs.getString("reference"),
+                rs.getBigDecimal("total_amount"),
+                rs.getString("payment_method") == null ? null : PaymentMethod.valueOf(rs.getString("payment_method")),
+                rs.getString("customer_id"),
+                rs.getString("status") == null ? null : OrderStatus.valueOf(rs.getString("status")),
+                rs.getTimestamp("created_date").toLocalDateTime()
+        );
+        try {
+            return new OrderDetailsResponse(order, objectMapper.readValue(rs.getString("order_lines"), ORDER_LINES));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Archived order " + order.id() + " has unreadable order lines", e);
+        }
+    }
+}
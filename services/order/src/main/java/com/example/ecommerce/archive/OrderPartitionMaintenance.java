@@ -0,0 +1,81 @@
+package com.example.ecommerce.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keeps the monthly partitions of {@code customer_order} ahead of the clock and moves partitions older
+ * than the retention into {@code customer_order_archive}. Both steps call the functions created by the
+ * {@code V2__partition_customer_order} migration, so every step is a single atomic statement.
+ */
+@Component
+@Slf4j
+public class OrderPartitionMaintenance {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String PARTITION_PREFIX = "customer_order_";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+
+    public OrderPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            @Value("${application.config.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${application.config.partitioning.archive-after-months:12}") int archiveAfterMonths
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.config.partitioning.initial-delay-ms:60000}",
+            fixedDelayString = "${application.config.partitioning.maintenance-interval-ms:3600000}"
+    )
+    public void maintainPartitions() {
+        var currentMonth = YearMonth.now();
+        createPartitionsUpTo(currentMonth.plusMonths(monthsAhead));
+        archivePartitionsBefore(currentMonth.minusMonths(archiveAfterMonths));
+    }
+
+    private void createPartitionsUpTo(YearMonth lastMonth) {
+        for (var month = YearMonth.now(); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            try {
+                jdbcTemplate.queryForObject("select create_customer_order_partition(?)", String.class, month.atDay(1));
+            } catch (DataAccessException e) {
+                // fails if customer_order_default already holds rows of that month
+                log.error("Failed to create the order partition for {}", month, e);
+            }
+        }
+    }
+
+    private void archivePartitionsBefore(YearMonth firstRetainedMonth) {
+        var partitions = jdbcTemplate.queryForList("""
+                select c.relname
+                from pg_inherits i
+                join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = 'customer_order'::regclass
+                  and c.relname ~ '^customer_order_[0-9]{4}_[0-9]{2}$'
+                order by c.relname""", String.class);
+        for (var partition : partitions) {
+            var month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (!month.isBefore(firstRetainedMonth)) {
+                break;
+            }
+            try {
+                var archived = jdbcTemplate.queryForObject("select archive_customer_order_partition(?)", Integer.class, partition);
+                log.info("Archived {} orders of partition {}", archived, partition);
+            } catch (DataAccessException e) {
+                log.error("Failed to archive order partition {}", partition, e);
+            }
+        }
+    }
+}
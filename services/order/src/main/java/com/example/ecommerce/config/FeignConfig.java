@@ -0,0 +1,9 @@
+package com.example.ecommerce.config;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableFeignClients(basePackages = "com.example.ecommerce")
+public class FeignConfig {
+}
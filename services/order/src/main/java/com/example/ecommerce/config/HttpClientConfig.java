@@ -0,0 +1,10 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.http.DownstreamHttpProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(DownstreamHttpProperties.class)
+public class HttpClientConfig {
+}
@@ -0,0 +1,117 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.http.RequestDeadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+public class OrderExecutorConfig {
+
+    /**
+     * Bounded pool used to run the independent downstream calls of an order concurrently.
+     * When the queue is full the task is rejected and the order fails with a 503, since a task run on
+     * the caller would escape the fan-out timeout. In virtual-thread mode the workers are virtual threads, but the
+     * pool size still caps the concurrent downstream calls. Tasks carry the request deadline of the
+     * thread that submitted them.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orderFanOutExecutor(
+            @Value("${application.config.fan-out.pool-size:16}") int poolSize,
+            @Value("${application.config.fan-out.queue-capacity:100}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("order-fan-out-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setVirtualThreads(virtualThreads);
+        executor.setTaskDecorator(RequestDeadline::propagate);
+        return executor;
+    }
+
+    /**
+     * Requests the payments of bulk orders. The pool size caps the concurrent payment calls of all bulk
+     * requests together; a payment that finds the queue full fails its order instead of running on the
+     * request thread.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bulkPaymentExecutor(
+            @Value("${application.config.bulk.payment-concurrency:8}") int concurrency,
+            @Value("${application.config.bulk.payment-queue-capacity:1000}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("bulk-payment-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    /**
+     * Reloads cached customers in the background. Kept apart from the fan-out pool so that refreshes
+     * neither run on request threads nor inherit the deadline of the request that triggered them. A
+     * refresh that finds the queue full is rejected, and Caffeine tries again on a later read.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor customerRefreshExecutor(
+            @Value("${application.config.customer-cache.refresh-pool-size:2}") int poolSize,
+            @Value("${application.config.customer-cache.refresh-queue-capacity:1000}") int queueCapacity
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("customer-refresh-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+
+    /**
+     * Reads the status of a long-polled order once its wait ends. The wait ends on the thread that
+     * committed the transition or on the JDK timeout thread, neither of which may block on the database.
+     * A read that finds the queue full fails the poll with a 503.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orderStatusExecutor(
+            @Value("${application.config.status-poll.pool-size:4}") int poolSize,
+            @Value("${application.config.status-poll.queue-capacity:1000}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("order-status-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    /**
+     * Processes orders accepted with {@code Prefer: respond-async}. The queue is sized to the work queue
+     * capacity, which is enforced before an order is accepted. On shutdown queued orders keep running for
+     * up to {@code shutdownTimeout}; those still left are resumed by another instance.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orderProcessingExecutor(
+            @Value("${application.config.work-queue.concurrency:8}") int concurrency,
+            @Value("${application.config.work-queue.capacity:500}") int capacity,
+            @Value("${application.config.work-queue.shutdown-timeout:30s}") Duration shutdownTimeout,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("order-processing-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(capacity);
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(shutdownTimeout.toMillis());
+        return executor;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ecommerce.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionPool(R2dbcProperties properties) {
+        var connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        var pool = properties.getPool();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("order-r2dbc")
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionPool reactiveConnectionPool) {
+        return DatabaseClient.create(reactiveConnectionPool);
+    }
+
+    /**
+     * The R2DBC transaction manager is deliberately not a bean: JPA only creates its own transaction
+     * manager when no other one exists, and {@code @Transactional} must keep resolving to JPA.
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionPool reactiveConnectionPool) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(reactiveConnectionPool));
+    }
+}
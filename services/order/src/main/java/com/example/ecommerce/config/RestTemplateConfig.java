@@ -1,14 +1,34 @@
 package com.example.ecommerce.config;
 
+import com.example.ecommerce.http.Downstream;
+import com.example.ecommerce.http.DownstreamHttpClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @Primary
+    public RestTemplate restTemplate(DownstreamHttpClients clients) {
+        var requestFactory = new HttpComponentsClientHttpRequestFactory(clients.httpClient(Downstream.PRODUCT));
+        requestFactory.setHttpContextFactory(clients.httpContextFactory(Downstream.PRODUCT));
+        var restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(clients.interceptor(Downstream.PRODUCT));
+        return restTemplate;
+    }
+
+    /**
+     * Stock releases run from the release relay, outside any request deadline and around the product
+     * circuit breaker and bulkhead.
+     */
+    @Bean
+    public RestTemplate productReleaseRestTemplate(DownstreamHttpClients clients) {
+        var restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(clients.httpClient(Downstream.PRODUCT)));
+        restTemplate.getInterceptors().add(clients.unguardedInterceptor(Downstream.PRODUCT));
+        return restTemplate;
     }
 }
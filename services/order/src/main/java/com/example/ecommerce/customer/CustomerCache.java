@@ -0,0 +1,73 @@
+package com.example.ecommerce.customer;
+
+import com.example.ecommerce.http.Downstream;
+import com.example.ecommerce.http.HedgedCalls;
+import com.example.ecommerce.order.DownstreamCallTimer;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * In-process cache in front of {@link CustomerClient}. Concurrent misses for the same customer share a
+ * single remote call, and entries that are still being read are reloaded in the background once they
+ * are older than the refresh interval, so hot customers never wait on a reload. Unknown customers are
+ * not cached. With a hedge delay, a lookup that is slower than the delay is sent a second time. Only
+ * the remote lookups are recorded as {@code order.downstream.call{call=customer}}, cache hits are not.
+ */
+@Component
+public class CustomerCache {
+
+    private final CustomerClient customerClient;
+    private final HedgedCalls hedgedCalls;
+    private final DownstreamCallTimer downstreamCallTimer;
+    private final Duration hedgeDelay;
+    private final LoadingCache<String, CustomerResponse> cache;
+
+    public CustomerCache(
+            CustomerClient customerClient,
+            HedgedCalls hedgedCalls,
+            DownstreamCallTimer downstreamCallTimer,
+            MeterRegistry meterRegistry,
+            @Qualifier("customerRefreshExecutor") ThreadPoolTaskExecutor refreshExecutor,
+            @Value("${application.config.customer-cache.maximum-size:10000}") long maximumSize,
+            @Value("${application.config.customer-cache.expire-after-write:10m}") Duration expireAfterWrite,
+            @Value("${application.config.customer-cache.refresh-after-write:1m}") Duration refreshAfterWrite,
+            @Value("${application.config.customer-cache.hedge-delay:0ms}") Duration hedgeDelay
+    ) {
+        this.customerClient = customerClient;
+        this.hedgedCalls = hedgedCalls;
+        this.downstreamCallTimer = downstreamCallTimer;
+        this.hedgeDelay = hedgeDelay;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customers");
+    }
+
+    public Optional<CustomerResponse> findCustomerById(String customerId) {
+        return Optional.ofNullable(cache.get(customerId));
+    }
+
+    public void invalidate(String customerId) {
+        cache.invalidate(customerId);
+    }
+
+    private CustomerResponse load(String customerId) {
+        var customer = downstreamCallTimer.record("customer", () -> hedgeDelay.isZero()
+                ? customerClient.findCustomerById(customerId)
+                : hedgedCalls.call(Downstream.CUSTOMER, hedgeDelay, () -> customerClient.findCustomerById(customerId)));
+        return customer.orElse(null);
+    }
+}
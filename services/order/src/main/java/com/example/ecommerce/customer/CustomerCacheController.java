@@ -0,0 +1,22 @@
+package com.example.ecommerce.customer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/customer-cache")
+@RequiredArgsConstructor
+public class CustomerCacheController {
+
+    private final CustomerCache customerCache;
+
+    @DeleteMapping("/{customer-id}")
+    public ResponseEntity<Void> invalidate(@PathVariable("customer-id") String customerId) {
+        customerCache.invalidate(customerId);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ecommerce.customer;
 
+import com.example.ecommerce.http.DownstreamFeignConfiguration;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -8,7 +9,8 @@ import java.util.Optional;
 
 @FeignClient(
         name = "customer-service",
-        url = "${application.config.customer-url}"
+        url = "${application.config.customer-url}",
+        configuration = DownstreamFeignConfiguration.class
 )
 public interface CustomerClient {
 
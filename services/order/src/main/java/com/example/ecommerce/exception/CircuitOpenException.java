@@ -0,0 +1,11 @@
+package com.example.ecommerce.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class CircuitOpenException extends RuntimeException {
+
+    private final String msg;
+}
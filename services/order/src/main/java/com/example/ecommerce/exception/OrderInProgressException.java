@@ -0,0 +1,12 @@
+package com.example.ecommerce.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class OrderInProgressException extends RuntimeException {
+
+    private final String msg;
+    private final Integer orderId;
+}
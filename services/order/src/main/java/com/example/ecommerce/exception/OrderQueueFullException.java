@@ -0,0 +1,11 @@
+package com.example.ecommerce.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class OrderQueueFullException extends RuntimeException {
+
+    private final String msg;
+}
@@ -1,14 +1,24 @@
 package com.example.ecommerce.handler;
 
+import com.example.ecommerce.exception.BulkheadFullException;
 import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.exception.CircuitOpenException;
+import com.example.ecommerce.exception.DeadlineExceededException;
+import com.example.ecommerce.exception.IdempotencyKeyMismatchException;
+import com.example.ecommerce.exception.OrderInProgressException;
+import com.example.ecommerce.exception.OrderQueueFullException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
+import java.net.URI;
 import java.util.HashMap;
 
 @RestControllerAdvice
@@ -23,8 +33,17 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException exp) {
+        return handleBindingResult(exp.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleWebExchangeBindException(WebExchangeBindException exp) {
+        return handleBindingResult(exp.getBindingResult());
+    }
+
+    private ResponseEntity<ErrorResponse> handleBindingResult(BindingResult bindingResult) {
         var errors = new HashMap<String, String>();
-        exp.getBindingResult().getAllErrors()
+        bindingResult.getAllErrors()
                 .forEach(error -> {
                     var fieldName = ((FieldError) error).getField();
                     var errorMessage = error.getDefaultMessage();
@@ -42,4 +61,52 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.BAD_REQUEST)
                 .body(exp.getMsg());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<String> handle(IdempotencyKeyMismatchException exp) {
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(exp.getMsg());
+    }
+
+    // points the client at the status resource of the order created by the first submission
+    @ExceptionHandler(OrderInProgressException.class)
+    public ResponseEntity<String> handle(OrderInProgressException exp) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .location(URI.create("/api/v1/orders/" + exp.getOrderId() + "/status"))
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exp.getMsg());
+    }
+
+    @ExceptionHandler(OrderQueueFullException.class)
+    public ResponseEntity<String> handle(OrderQueueFullException exp) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exp.getMsg());
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<String> handle(BulkheadFullException exp) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exp.getMsg());
+    }
+
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<String> handle(CircuitOpenException exp) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exp.getMsg());
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<String> handle(DeadlineExceededException exp) {
+        return ResponseEntity
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(exp.getMsg());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.http;
+
+import com.example.ecommerce.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of concurrent calls to one downstream, so a slow service can only tie up its own
+ * share of the order service's threads.
+ */
+public class Bulkhead {
+
+    private final Downstream downstream;
+    private final Semaphore permits;
+    private final Duration maxWait;
+    private final Counter rejected;
+
+    public Bulkhead(Downstream downstream, int maxConcurrentCalls, Duration maxWait, MeterRegistry meterRegistry) {
+        this.downstream = downstream;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.maxWait = maxWait;
+        this.rejected = Counter.builder("http.client.bulkhead.rejected")
+                .description("Calls rejected because the downstream bulkhead was full")
+                .tag("downstream", downstream.getServiceId())
+                .register(meterRegistry);
+        Gauge.builder("http.client.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Free call slots in the downstream bulkhead")
+                .tag("downstream", downstream.getServiceId())
+                .register(meterRegistry);
+    }
+
+    public void acquire() {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new BulkheadFullException(String.format("Too many concurrent calls to %s, retry later", downstream.getServiceId()));
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.ecommerce.http;
+
+import com.example.ecommerce.exception.CircuitOpenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Count-based circuit breaker for one downstream. Once at least {@code minimumCalls} of the last
+ * {@code windowSize} calls are recorded and the share of failed or slow ones reaches the threshold, calls
+ * are rejected without touching the network for {@code openDuration}. After that a few trial calls are let
+ * through: one failure opens the circuit again, all of them succeeding closes it.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final Downstream downstream;
+    private final DownstreamHttpProperties.CircuitBreakerSettings settings;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAt;
+    private int trialCalls;
+    private int trialSuccesses;
+
+    public CircuitBreaker(Downstream downstream, DownstreamHttpProperties.CircuitBreakerSettings settings, MeterRegistry meterRegistry) {
+        this.downstream = downstream;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.window = new boolean[settings.getWindowSize()];
+        this.rejected = Counter.builder("http.client.circuit.rejected")
+                .description("Calls short-circuited because the downstream circuit was open")
+                .tag("downstream", downstream.getServiceId())
+                .register(meterRegistry);
+        Gauge.builder("http.client.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("Circuit state of the downstream: 0 closed, 1 open, 2 half-open")
+                .tag("downstream", downstream.getServiceId())
+                .register(meterRegistry);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized void acquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= settings.getOpenDuration().toNanos()) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && trialCalls >= settings.getHalfOpenCalls())) {
+            rejected.increment();
+            throw new CircuitOpenException(String.format("%s is unavailable, retry later", downstream.getServiceId()));
+        }
+        if (state == State.HALF_OPEN) {
+            trialCalls++;
+        }
+    }
+
+    /**
+     * Gives back a permit that was acquired for a call which never went out.
+     */
+    public synchronized void cancel() {
+        if (state == State.HALF_OPEN && trialCalls > 0) {
+            trialCalls--;
+        }
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        var slowCall = settings.getSlowCallDuration() != null && durationNanos >= settings.getSlowCallDuration().toNanos();
+        if (slowCall) {
+            onFailure();
+        } else if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= settings.getHalfOpenCalls()) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+        }
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+        // checked for both outcomes: the window can reach its minimum size with a success
+        if (windowCount >= settings.getMinimumCalls() && windowFailures * 100 >= settings.getFailureRateThreshold() * windowCount) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Circuit breaker of {} changed from {} to {}", downstream.getServiceId(), state, next);
+        Counter.builder("http.client.circuit.transitions")
+                .description("State changes of the downstream circuit breaker")
+                .tag("downstream", downstream.getServiceId())
+                .tag("from", state.name().toLowerCase())
+                .tag("to", next.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        state = next;
+        trialCalls = 0;
+        trialSuccesses = 0;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (next == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.ecommerce.http;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+@Getter
+public enum Downstream {
+    CUSTOMER("customer-service"),
+    PRODUCT("product-service"),
+    PAYMENT("payment-service");
+
+    private final String serviceId;
+
+    Downstream(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public static Downstream fromServiceId(String serviceId) {
+        return Arrays.stream(values())
+                .filter(downstream -> downstream.serviceId.equalsIgnoreCase(serviceId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown downstream service: " + serviceId));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ecommerce.http;
+
+import feign.Client;
+import feign.Request;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Per-client Feign configuration, deliberately not annotated with {@code @Configuration} so it is only
+ * loaded into each Feign client's own context. The client name selects the downstream.
+ */
+public class DownstreamFeignConfiguration {
+
+    @Bean
+    public Client feignClient(
+            DownstreamHttpClients clients,
+            @Value("${spring.cloud.openfeign.client.name}") String clientName
+    ) {
+        return clients.feignClient(Downstream.fromServiceId(clientName));
+    }
+
+    @Bean
+    public Request.Options feignOptions(
+            DownstreamHttpClients clients,
+            @Value("${spring.cloud.openfeign.client.name}") String clientName
+    ) {
+        return clients.feignOptions(Downstream.fromServiceId(clientName));
+    }
+}
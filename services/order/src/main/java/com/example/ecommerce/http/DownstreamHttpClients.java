@@ -0,0 +1,306 @@
+package com.example.ecommerce.http;
+
+import com.example.ecommerce.exception.DeadlineExceededException;
+import feign.Client;
+import feign.Request;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One connection pool, timeout policy, bulkhead and circuit breaker per downstream service. Every outbound
+ * HTTP call of the order service, Feign or RestTemplate, goes through the client built here for its
+ * downstream, and its timeouts are capped by the {@link RequestDeadline} of the request it serves.
+ */
+@Component
+public class DownstreamHttpClients implements DisposableBean {
+
+    private final DownstreamHttpProperties properties;
+    private final DownstreamRouter router;
+    private final MeterRegistry meterRegistry;
+    private final Map<Downstream, PoolingHttpClientConnectionManager> connectionManagers = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, CloseableHttpClient> httpClients = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Bulkhead> bulkheads = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, CircuitBreaker> circuitBreakers = new EnumMap<>(Downstream.class);
+
+    public DownstreamHttpClients(DownstreamHttpProperties properties, DownstreamRouter router, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.router = router;
+        this.meterRegistry = meterRegistry;
+        for (Downstream downstream : Downstream.values()) {
+            var settings = properties.settings(downstream);
+            var connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(settings.getMaxConnections())
+                    .setMaxConnPerRoute(settings.getMaxConnections())
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.ofMilliseconds(settings.getConnectTimeout().toMillis()))
+                            .setSocketTimeout(Timeout.ofMilliseconds(settings.getReadTimeout().toMillis()))
+                            .setTimeToLive(TimeValue.ofMilliseconds(settings.getConnectionTimeToLive().toMillis()))
+                            .build())
+                    .build();
+            var httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectionRequestTimeout(Timeout.ofMilliseconds(settings.getConnectionRequestTimeout().toMillis()))
+                            .setResponseTimeout(Timeout.ofMilliseconds(settings.getReadTimeout().toMillis()))
+                            .build())
+                    .evictIdleConnections(TimeValue.ofMilliseconds(settings.getIdleTimeout().toMillis()))
+                    .build();
+            connectionManagers.put(downstream, connectionManager);
+            httpClients.put(downstream, httpClient);
+            bulkheads.put(downstream, new Bulkhead(downstream, settings.getMaxConcurrentCalls(), settings.getMaxBulkheadWait(), meterRegistry));
+            circuitBreakers.put(downstream, new CircuitBreaker(downstream, settings.getCircuitBreaker(), meterRegistry));
+            registerPoolMetrics(downstream, connectionManager, meterRegistry);
+        }
+    }
+
+    public CloseableHttpClient httpClient(Downstream downstream) {
+        return httpClients.get(downstream);
+    }
+
+    public Bulkhead bulkhead(Downstream downstream) {
+        return bulkheads.get(downstream);
+    }
+
+    public CircuitBreaker circuitBreaker(Downstream downstream) {
+        return circuitBreakers.get(downstream);
+    }
+
+    public Client feignClient(Downstream downstream) {
+        var delegate = new ApacheHttp5Client(httpClient(downstream));
+        return (request, options) -> call(downstream, () -> {
+            var routed = router.route(downstream, URI.create(request.url()));
+            return delegate.execute(
+                    Request.create(
+                            request.httpMethod(),
+                            routed.toString(),
+                            withDeadlineHeader(request.headers()),
+                            request.body(),
+                            request.charset(),
+                            request.requestTemplate()
+                    ),
+                    withinDeadline(options)
+            );
+        }, response -> response.status() >= 500);
+    }
+
+    /**
+     * Feign applies its own options to every request, so they have to carry the downstream's timeouts.
+     */
+    public Request.Options feignOptions(Downstream downstream) {
+        var settings = properties.settings(downstream);
+        return new Request.Options(
+                settings.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                settings.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                true
+        );
+    }
+
+    /**
+     * Caps the RestTemplate timeouts by the request deadline. Without a deadline the client's defaults apply.
+     */
+    public BiFunction<HttpMethod, URI, HttpContext> httpContextFactory(Downstream downstream) {
+        var settings = properties.settings(downstream);
+        return (method, uri) -> {
+            var context = HttpClientContext.create();
+            if (RequestDeadline.remaining().isPresent()) {
+                context.setRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(RequestDeadline.cap(settings.getConnectionRequestTimeout())))
+                        .setResponseTimeout(timeout(RequestDeadline.cap(settings.getReadTimeout())))
+                        .build());
+            }
+            return context;
+        };
+    }
+
+    public ClientHttpRequestInterceptor interceptor(Downstream downstream) {
+        return (request, body, execution) -> call(downstream, () -> {
+            RequestDeadline.remaining().ifPresent(remaining -> request.getHeaders().set(RequestDeadline.HEADER, String.valueOf(remaining.toMillis())));
+            var routed = router.route(downstream, request.getURI());
+            HttpRequest routedRequest = new HttpRequestWrapper(request) {
+                @Override
+                public URI getURI() {
+                    return routed;
+                }
+            };
+            return execution.execute(routedRequest, body);
+        }, response -> response.getStatusCode().is5xxServerError());
+    }
+
+    /**
+     * For compensating calls such as stock releases. They are timed like every other call, but neither
+     * the circuit breaker nor the bulkhead applies: shedding a release would lose stock, and the caller
+     * retries it anyway. They always go straight to an instance, as their endpoints are internal.
+     */
+    public ClientHttpRequestInterceptor unguardedInterceptor(Downstream downstream) {
+        return (request, body, execution) -> {
+            var routed = router.routeDirect(downstream, request.getURI());
+            HttpRequest routedRequest = new HttpRequestWrapper(request) {
+                @Override
+                public URI getURI() {
+                    return routed;
+                }
+            };
+            var sample = Timer.start(meterRegistry);
+            var outcome = "error";
+            try {
+                var response = execution.execute(routedRequest, body);
+                if (!response.getStatusCode().is5xxServerError()) {
+                    outcome = "success";
+                }
+                return response;
+            } finally {
+                sample.stop(Timer.builder("http.client.downstream.calls")
+                        .description("Latency of outbound calls by downstream and routing mode")
+                        .tag("downstream", downstream.getServiceId())
+                        .tag("routing", "direct")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+        };
+    }
+
+    private <T> T call(Downstream downstream, HttpCall<T> httpCall, ServerErrorCheck<T> serverError) throws IOException {
+        if (RequestDeadline.isExpired()) {
+            Counter.builder("http.client.deadline.exceeded")
+                    .description("Calls not sent because the request deadline had already passed")
+                    .tag("downstream", downstream.getServiceId())
+                    .register(meterRegistry)
+                    .increment();
+            throw new DeadlineExceededException(String.format("No time left to call %s", downstream.getServiceId()));
+        }
+        var circuitBreaker = circuitBreaker(downstream);
+        circuitBreaker.acquire();
+        var bulkhead = bulkhead(downstream);
+        try {
+            bulkhead.acquire();
+        } catch (RuntimeException e) {
+            circuitBreaker.cancel();
+            throw e;
+        }
+        var start = System.nanoTime();
+        var sample = Timer.start(meterRegistry);
+        var outcome = "success";
+        try {
+            var result = httpCall.execute();
+            if (serverError.test(result)) {
+                outcome = "error";
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            if (RequestDeadline.isExpired()) {
+                // our own capped budget ran out, which says nothing about the downstream's health
+                outcome = "deadline";
+                circuitBreaker.cancel();
+            } else {
+                outcome = "error";
+                circuitBreaker.onFailure();
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+            sample.stop(Timer.builder("http.client.downstream.calls")
+                    .description("Latency of outbound calls by downstream and routing mode")
+                    .tag("downstream", downstream.getServiceId())
+                    .tag("routing", router.isDirect() ? "direct" : "gateway")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Request.Options withinDeadline(Request.Options options) {
+        if (RequestDeadline.remaining().isEmpty()) {
+            return options;
+        }
+        return new Request.Options(
+                RequestDeadline.cap(Duration.ofMillis(options.connectTimeoutMillis())).toMillis(), TimeUnit.MILLISECONDS,
+                RequestDeadline.cap(Duration.ofMillis(options.readTimeoutMillis())).toMillis(), TimeUnit.MILLISECONDS,
+                options.isFollowRedirects()
+        );
+    }
+
+    private static Map<String, Collection<String>> withDeadlineHeader(Map<String, Collection<String>> headers) {
+        var remaining = RequestDeadline.remaining();
+        if (remaining.isEmpty()) {
+            return headers;
+        }
+        var withHeader = new LinkedHashMap<>(headers);
+        withHeader.put(RequestDeadline.HEADER, List.of(String.valueOf(remaining.get().toMillis())));
+        return withHeader;
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    @FunctionalInterface
+    private interface HttpCall<T> {
+        T execute() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ServerErrorCheck<T> {
+        boolean test(T response) throws IOException;
+    }
+
+    private void registerPoolMetrics(Downstream downstream, PoolingHttpClientConnectionManager connectionManager, MeterRegistry meterRegistry) {
+        poolGauge("http.client.pool.leased", "Connections currently in use", PoolStats::getLeased, downstream, connectionManager, meterRegistry);
+        poolGauge("http.client.pool.pending", "Requests waiting for a connection", PoolStats::getPending, downstream, connectionManager, meterRegistry);
+        poolGauge("http.client.pool.available", "Idle connections kept alive", PoolStats::getAvailable, downstream, connectionManager, meterRegistry);
+        poolGauge("http.client.pool.max", "Maximum connections", PoolStats::getMax, downstream, connectionManager, meterRegistry);
+    }
+
+    private void poolGauge(
+            String name,
+            String description,
+            ToDoubleFunction<PoolStats> value,
+            Downstream downstream,
+            PoolingHttpClientConnectionManager connectionManager,
+            MeterRegistry meterRegistry
+    ) {
+        Gauge.builder(name, connectionManager, manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description(description)
+                .tag("downstream", downstream.getServiceId())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        httpClients.values().forEach(httpClient -> httpClient.close(CloseMode.GRACEFUL));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.ecommerce.http;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.http")
+public class DownstreamHttpProperties {
+
+    private Routing routing = Routing.GATEWAY;
+    private Map<Downstream, Settings> downstreams = new HashMap<>();
+
+    public Settings settings(Downstream downstream) {
+        return downstreams.getOrDefault(downstream, new Settings());
+    }
+
+    public enum Routing {
+        /**
+         * Call the configured URLs as they are, i.e. through the API gateway.
+         */
+        GATEWAY,
+        /**
+         * Keep the configured path but send the call straight to an instance picked from the Eureka registry.
+         */
+        DIRECT
+    }
+
+    @Getter
+    @Setter
+    public static class Settings {
+        private int maxConnections = 50;
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        private Duration connectionRequestTimeout = Duration.ofMillis(500);
+        private Duration connectionTimeToLive = Duration.ofMinutes(5);
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        private int maxConcurrentCalls = 50;
+        private Duration maxBulkheadWait = Duration.ofMillis(100);
+        private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreakerSettings {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRateThreshold = 50;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 3;
+        /**
+         * Successful calls at least this slow count as failures. Unset, only errors and 5xx responses do.
+         */
+        private Duration slowCallDuration;
+    }
+}
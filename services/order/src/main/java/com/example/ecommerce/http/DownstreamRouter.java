@@ -0,0 +1,51 @@
+package com.example.ecommerce.http;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+
+/**
+ * Resolves the target of a downstream call. In direct routing the host of the configured URL is replaced
+ * by an instance chosen by the client-side load balancer from its cached view of the Eureka registry,
+ * so internal calls skip the gateway hop. Without a registered instance the call falls back to the
+ * configured URL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DownstreamRouter {
+
+    private final DownstreamHttpProperties properties;
+    private final LoadBalancerClient loadBalancerClient;
+
+    public boolean isDirect() {
+        return properties.getRouting() == DownstreamHttpProperties.Routing.DIRECT;
+    }
+
+    public URI route(Downstream downstream, URI uri) {
+        if (!isDirect()) {
+            return uri;
+        }
+        var instance = loadBalancerClient.choose(downstream.getServiceId());
+        if (instance == null) {
+            log.warn("No instance of {} registered, falling back to {}", downstream.getServiceId(), uri.getHost());
+            return uri;
+        }
+        return loadBalancerClient.reconstructURI(instance, uri);
+    }
+
+    /**
+     * Always resolves an instance, whatever the routing mode, for internal endpoints the gateway does not
+     * route. Fails when no instance is registered instead of falling back to the gateway.
+     */
+    public URI routeDirect(Downstream downstream, URI uri) {
+        var instance = loadBalancerClient.choose(downstream.getServiceId());
+        if (instance == null) {
+            throw new IllegalStateException(String.format("No instance of %s registered", downstream.getServiceId()));
+        }
+        return loadBalancerClient.reconstructURI(instance, uri);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ecommerce.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for idempotent reads only: when the first call has not answered after {@code delay}, an
+ * identical second call is sent and whichever succeeds first is used. A call that fails before the delay
+ * is not repeated.
+ */
+@Component
+@RequiredArgsConstructor
+public class HedgedCalls implements DisposableBean {
+
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public <T> T call(Downstream downstream, Duration delay, Supplier<T> call) {
+        var primary = CompletableFuture.supplyAsync(call, task -> executor.execute(RequestDeadline.propagate(task)));
+        try {
+            return primary.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // fall through and hedge
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + downstream.getServiceId(), e);
+        }
+
+        counter("http.client.hedge.requests", "Hedged requests sent because the first call was slow", downstream).increment();
+        var hedge = CompletableFuture.supplyAsync(call, task -> executor.execute(RequestDeadline.propagate(task)));
+        hedge.thenRun(() -> {
+            if (!primary.isDone() || primary.isCompletedExceptionally()) {
+                counter("http.client.hedge.wins", "Hedged requests that answered before the first call", downstream).increment();
+            }
+        });
+        try {
+            return firstSuccessful(primary, hedge).join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        var result = new CompletableFuture<T>();
+        var pending = new AtomicInteger(2);
+        for (var future : List.of(first, second)) {
+            future.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    result.complete(value);
+                } else if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+        return result;
+    }
+
+    private Counter counter(String name, String description, Downstream downstream) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("downstream", downstream.getServiceId())
+                .register(meterRegistry);
+    }
+
+    private static RuntimeException unwrap(Throwable ex) {
+        var cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(cause);
+    }
+
+    @Override
+    public void destroy() {
+        executor.close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ecommerce.http;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The point in time by which the current request has to be answered. It is set where a request enters
+ * the service, travels with the work through {@link #propagate(Runnable)} and caps the timeout of every
+ * downstream call, so each call only gets what is left of the budget.
+ */
+public final class RequestDeadline {
+
+    /**
+     * Remaining budget in milliseconds, sent with every downstream call.
+     */
+    public static final String HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Runs {@code action} with a deadline of {@code budget} from now. An enclosing deadline that is
+     * earlier still wins.
+     */
+    public static <T> T within(Duration budget, Supplier<T> action) {
+        var previous = DEADLINE.get();
+        var deadline = System.nanoTime() + budget.toNanos();
+        DEADLINE.set(previous != null && previous - deadline < 0 ? previous : deadline);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Runs {@code action} without any deadline, for work that has to finish even when the request has
+     * given up, such as releasing stock again.
+     */
+    public static <T> T detached(Supplier<T> action) {
+        var previous = DEADLINE.get();
+        DEADLINE.remove();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static Optional<Duration> remaining() {
+        var deadline = DEADLINE.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    public static boolean isExpired() {
+        return remaining().map(remaining -> remaining.isNegative() || remaining.isZero()).orElse(false);
+    }
+
+    /**
+     * The smaller of {@code timeout} and the remaining budget, never below one millisecond because a zero
+     * timeout means no timeout at all to most clients.
+     */
+    public static Duration cap(Duration timeout) {
+        return remaining()
+                .filter(remaining -> remaining.compareTo(timeout) < 0)
+                .map(remaining -> Duration.ofMillis(Math.max(1, remaining.toMillis())))
+                .orElse(timeout);
+    }
+
+    public static Runnable propagate(Runnable task) {
+        var deadline = DEADLINE.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            var previous = DEADLINE.get();
+            DEADLINE.set(deadline);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Long previous) {
+        if (previous == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(previous);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce.idempotency;
+
+import java.time.LocalDateTime;
+
+/**
+ * The order an {@code Idempotency-Key} created, the fingerprint of the request that claimed it and when
+ * it was claimed.
+ */
+public record ClaimedKey(
+        Integer orderId,
+        String requestFingerprint,
+        LocalDateTime createdDate
+) {
+}
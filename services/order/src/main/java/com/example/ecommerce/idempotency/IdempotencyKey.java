@@ -0,0 +1,32 @@
+package com.example.ecommerce.idempotency;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(
+        name = "order_idempotency_key",
+        indexes = @Index(name = "idx_order_idempotency_key_created_date", columnList = "created_date")
+)
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "idempotency_key", length = IdempotencyStore.MAX_KEY_LENGTH)
+    private String key;
+
+    @Column(nullable = false, updatable = false)
+    private Integer orderId;
+
+    @Column(length = IdempotencyStore.FINGERPRINT_LENGTH, updatable = false)
+    private String requestFingerprint;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+}
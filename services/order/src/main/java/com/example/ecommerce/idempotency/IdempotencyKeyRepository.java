@@ -0,0 +1,33 @@
+package com.example.ecommerce.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Query("select new com.example.ecommerce.idempotency.ClaimedKey(k.orderId, k.requestFingerprint, k.createdDate) from IdempotencyKey k where k.key = :key")
+    Optional<ClaimedKey> findClaimByKey(@Param("key") String key);
+
+    // a plain insert instead of save(), which would merge into an existing row rather than fail on it
+    @Modifying
+    @Query(value = """
+            insert into order_idempotency_key (idempotency_key, order_id, request_fingerprint, created_date)
+            values (:key, :orderId, :fingerprint, :now)""", nativeQuery = true)
+    void insert(
+            @Param("key") String key,
+            @Param("orderId") Integer orderId,
+            @Param("fingerprint") String fingerprint,
+            @Param("now") LocalDateTime now
+    );
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdDate < :cutoff")
+    int deleteAllCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,156 @@
+package com.example.ecommerce.idempotency;
+
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.exception.IdempotencyKeyMismatchException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Maps client supplied {@code Idempotency-Key}s to the order they created. Keys are claimed in the same
+ * transaction that places the pending order, so a duplicate either finds the key here or fails on the
+ * primary key before any remote call is made. Recently seen keys are answered from memory, but never
+ * for longer than the key is retained. Each key keeps a fingerprint of the request that claimed it;
+ * reusing the key for a different request fails.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 255;
+    static final int FINGERPRINT_LENGTH = 64;
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration cacheExpireAfterWrite;
+    private final Cache<String, ClaimedKey> recentKeys;
+
+    public IdempotencyStore(
+            IdempotencyKeyRepository repository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.idempotency.cache-maximum-size:10000}") long cacheMaximumSize,
+            @Value("${application.config.idempotency.cache-expire-after-write:10m}") Duration cacheExpireAfterWrite,
+            @Value("${application.config.idempotency.retention:24h}") Duration retention
+    ) {
+        if (cacheExpireAfterWrite.compareTo(retention) > 0) {
+            throw new IllegalArgumentException(String.format(
+                    "application.config.idempotency.cache-expire-after-write (%s) must not exceed retention (%s)", cacheExpireAfterWrite, retention));
+        }
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.cacheExpireAfterWrite = cacheExpireAfterWrite;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<String, ClaimedKey>() {
+                    @Override
+                    public long expireAfterCreate(String key, ClaimedKey claimed, long currentTime) {
+                        return timeToLive(claimed).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, ClaimedKey claimed, long currentTime, long currentDuration) {
+                        return timeToLive(claimed).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, ClaimedKey claimed, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentKeys, "idempotency-keys");
+    }
+
+    /**
+     * Returns the order created with {@code key}, failing with {@link IdempotencyKeyMismatchException}
+     * if the key was claimed by a different request.
+     */
+    public Optional<Integer> findOrderId(String key, Object request) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        validate(key);
+        var claimed = Optional.ofNullable(recentKeys.getIfPresent(key))
+                .or(() -> {
+                    var stored = repository.findClaimByKey(key);
+                    stored.ifPresent(found -> recentKeys.put(key, found));
+                    return stored;
+                });
+        claimed.ifPresent(found -> {
+            if (found.requestFingerprint() != null && !found.requestFingerprint().equals(fingerprint(request))) {
+                throw new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request:: " + key);
+            }
+        });
+        return claimed.map(ClaimedKey::orderId);
+    }
+
+    /**
+     * Must run inside the transaction that creates the order. Fails with a
+     * {@link org.springframework.dao.DataIntegrityViolationException} if the key was already claimed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void claim(String key, Integer orderId, Object request) {
+        validate(key);
+        repository.insert(key, orderId, fingerprint(request), LocalDateTime.now());
+    }
+
+    public void remember(String key, Integer orderId, Object request) {
+        if (key != null) {
+            recentKeys.put(key, new ClaimedKey(orderId, fingerprint(request), LocalDateTime.now()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.idempotency.purge-interval-ms:600000}")
+    public void purgeExpiredKeys() {
+        var purged = repository.deleteAllCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // a key read back from the database shortly before its purge leaves the cache with it
+    private Duration timeToLive(ClaimedKey claimed) {
+        var untilPurge = Duration.between(LocalDateTime.now(), claimed.createdDate().plus(retention));
+        if (untilPurge.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilPurge.compareTo(cacheExpireAfterWrite) < 0 ? untilPurge : cacheExpireAfterWrite;
+    }
+
+    // SHA-256 of the request as JSON, which serializes record components in declaration order
+    private String fingerprint(Object request) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private void validate(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(String.format("Invalid Idempotency-Key:: must be 1 to %d characters", MAX_KEY_LENGTH));
+        }
+    }
+}
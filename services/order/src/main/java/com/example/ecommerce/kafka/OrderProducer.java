@@ -1,25 +1,49 @@
 package com.example.ecommerce.kafka;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderProducer {
+
+    public static final String ORDER_TOPIC = "order-topic";
+
     private final KafkaTemplate<String, OrderConfirmation> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
-    public void sendOrderConfirmation(OrderConfirmation orderConfirmation) {
-        log.info("Sending order confirmation");
+    /**
+     * Sends the confirmation keyed by {@code key}, so all confirmations with the same key land on the same
+     * partition in order. Send latency and failures are recorded in {@code kafka.producer.send}.
+     */
+    public CompletableFuture<SendResult<String, OrderConfirmation>> sendOrderConfirmation(String key, OrderConfirmation orderConfirmation) {
+        log.debug("Sending order confirmation {}", orderConfirmation.orderReference());
         Message<OrderConfirmation> message = MessageBuilder
                 .withPayload(orderConfirmation)
-                .setHeader(KafkaHeaders.TOPIC, "order-topic")
+                .setHeader(KafkaHeaders.TOPIC, ORDER_TOPIC)
+                .setHeader(KafkaHeaders.KEY, key)
                 .build();
-        kafkaTemplate.send(message);
+        var sample = Timer.start(meterRegistry);
+        return kafkaTemplate.send(message).whenComplete((result, ex) -> {
+            sample.stop(Timer.builder("kafka.producer.send")
+                    .description("Time until a record is acknowledged by the broker")
+                    .tag("topic", ORDER_TOPIC)
+                    .tag("outcome", ex == null ? "success" : "failure")
+                    .register(meterRegistry));
+            if (ex != null) {
+                log.error("Order confirmation {} was not acknowledged", orderConfirmation.orderReference(), ex);
+            }
+        });
     }
 }
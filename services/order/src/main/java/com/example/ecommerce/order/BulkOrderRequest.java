@@ -0,0 +1,14 @@
+package com.example.ecommerce.order;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkOrderRequest(
+        @NotEmpty(message = "You should at least submit one order")
+        @Size(max = 500, message = "At most 500 orders can be submitted at once")
+        List<@Valid OrderRequest> orders
+) {
+}
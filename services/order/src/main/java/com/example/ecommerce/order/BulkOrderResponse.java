@@ -0,0 +1,10 @@
+package com.example.ecommerce.order;
+
+import java.util.List;
+
+public record BulkOrderResponse(
+        int confirmed,
+        int failed,
+        List<BulkOrderResult> results
+) {
+}
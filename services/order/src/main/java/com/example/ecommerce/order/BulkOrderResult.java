@@ -0,0 +1,13 @@
+package com.example.ecommerce.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+@JsonInclude(Include.NON_EMPTY)
+public record BulkOrderResult(
+        String reference,
+        Integer orderId,
+        OrderStatus status,
+        String error
+) {
+}
@@ -0,0 +1,340 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.customer.CustomerCache;
+import com.example.ecommerce.customer.CustomerResponse;
+import com.example.ecommerce.kafka.OrderConfirmation;
+import com.example.ecommerce.payment.PaymentClient;
+import com.example.ecommerce.payment.PaymentRequest;
+import com.example.ecommerce.product.ProductClient;
+import com.example.ecommerce.product.ProductReleaseQueue;
+import com.example.ecommerce.product.PurchaseKeys;
+import com.example.ecommerce.product.PurchaseRequest;
+import com.example.ecommerce.product.PurchaseResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.ecommerce.order.OrderStatus.CONFIRMED;
+import static com.example.ecommerce.order.OrderStatus.FAILED;
+import static com.example.ecommerce.order.OrderStatus.PAID;
+import static com.example.ecommerce.order.OrderStatus.PENDING;
+import static com.example.ecommerce.order.OrderStatus.STOCK_RESERVED;
+
+/**
+ * Creates a batch of orders with one lookup per distinct customer, one aggregated purchase, batched
+ * inserts and status updates, and a single outbox transaction for all confirmations. Payments are still
+ * requested per order because the payment service has no batch API; they run on their own bounded pool,
+ * so a large batch neither takes over the fan-out executor nor runs payments on the request thread.
+ * <p>
+ * The aggregated purchase is all or nothing: if product rejects it, every order of the batch fails.
+ * Orders are only reported as confirmed once their confirmations have been committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkOrderService {
+
+    private final OrderRepository repository;
+    private final OrderStateMachine stateMachine;
+    private final CustomerCache customerCache;
+    private final ProductClient productClient;
+    private final ProductReleaseQueue releaseQueue;
+    private final PaymentClient paymentClient;
+    @Qualifier("orderFanOutExecutor")
+    private final ThreadPoolTaskExecutor executor;
+    @Qualifier("bulkPaymentExecutor")
+    private final ThreadPoolTaskExecutor paymentExecutor;
+
+    public BulkOrderResponse createOrders(List<OrderRequest> requests) {
+        var results = new BulkOrderResult[requests.size()];
+        var accepted = rejectDuplicateReferences(requests, results);
+        var customers = findCustomers(accepted.values());
+        accepted.entrySet().removeIf(entry -> {
+            var request = entry.getValue();
+            var lookup = customers.get(request.customerId());
+            if (lookup.error() != null) {
+                results[entry.getKey()] = failed(request, null, "Customer could not be looked up, retry later");
+                return true;
+            }
+            if (lookup.customer().isEmpty()) {
+                results[entry.getKey()] = failed(request, null, "No customer exists with the provided ID");
+                return true;
+            }
+            return false;
+        });
+        if (!accepted.isEmpty()) {
+            var purchaseKey = PurchaseKeys.forBulk();
+            var placed = placePendingOrders(purchaseKey, accepted, results);
+            if (!placed.isEmpty()) {
+                processOrders(purchaseKey, placed, accepted, customers, results);
+            }
+        }
+        var resultList = Arrays.asList(results);
+        var confirmed = (int) resultList.stream().filter(result -> result.status() == CONFIRMED).count();
+        return new BulkOrderResponse(confirmed, results.length - confirmed, resultList);
+    }
+
+    private Map<Integer, OrderRequest> rejectDuplicateReferences(List<OrderRequest> requests, BulkOrderResult[] results) {
+        var references = requests.stream()
+                .map(OrderRequest::reference)
+                .filter(reference -> reference != null && !reference.isBlank())
+                .collect(Collectors.toSet());
+        var taken = new HashSet<String>();
+        if (!references.isEmpty()) {
+            taken.addAll(repository.findExistingReferences(references));
+        }
+        var accepted = new LinkedHashMap<Integer, OrderRequest>();
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            if (request.reference() == null || request.reference().isBlank()) {
+                results[i] = failed(request, null, "Order reference is mandatory");
+            } else if (!taken.add(request.reference())) {
+                results[i] = failed(request, null, "An order with this reference already exists");
+            } else {
+                accepted.put(i, request);
+            }
+        }
+        return accepted;
+    }
+
+    private Map<String, CustomerLookup> findCustomers(Iterable<OrderRequest> requests) {
+        var lookups = new HashMap<String, CompletableFuture<CustomerLookup>>();
+        requests.forEach(request -> lookups.computeIfAbsent(request.customerId(), this::lookUpCustomer));
+        return lookups.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().join()));
+    }
+
+    /**
+     * A lookup the fan-out pool has no room for fails like any other, so only its orders are reported
+     * as failed.
+     */
+    private CompletableFuture<CustomerLookup> lookUpCustomer(String customerId) {
+        try {
+            return CompletableFuture
+                    .supplyAsync(() -> customerCache.findCustomerById(customerId), executor)
+                    .thenApply(customer -> new CustomerLookup(customer, null))
+                    .exceptionally(ex -> {
+                        log.warn("Customer lookup for {} failed", customerId, ex);
+                        return new CustomerLookup(Optional.empty(), ex);
+                    });
+        } catch (RejectedExecutionException e) {
+            log.warn("Customer lookup for {} rejected, the fan-out pool is full", customerId);
+            return CompletableFuture.completedFuture(new CustomerLookup(Optional.empty(), e));
+        }
+    }
+
+    /**
+     * Places the orders in one batch. A reference taken concurrently since the check fails that batch,
+     * so the orders are then placed one by one and only the duplicates fail. Every order keeps the key of
+     * the aggregated purchase, so that recovery can find its share of it.
+     */
+    private Map<Integer, Order> placePendingOrders(String purchaseKey, Map<Integer, OrderRequest> accepted, BulkOrderResult[] results) {
+        var placed = new LinkedHashMap<Integer, Order>();
+        try {
+            var indexes = List.copyOf(accepted.keySet());
+            var orders = stateMachine.placePendingOrders(List.copyOf(accepted.values()), purchaseKey);
+            for (int i = 0; i < orders.size(); i++) {
+                placed.put(indexes.get(i), orders.get(i));
+            }
+            return placed;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch of {} orders hit a duplicate reference, placing them one by one", accepted.size(), e);
+        }
+        accepted.forEach((index, request) -> {
+            try {
+                placed.put(index, stateMachine.placePendingOrder(request, null, purchaseKey));
+            } catch (DataIntegrityViolationException e) {
+                results[index] = failed(request, null, "An order with this reference already exists");
+            }
+        });
+        return placed;
+    }
+
+    private void processOrders(
+            String purchaseKey,
+            Map<Integer, Order> placed,
+            Map<Integer, OrderRequest> accepted,
+            Map<String, CustomerLookup> customers,
+            BulkOrderResult[] results
+    ) {
+        var indexes = List.copyOf(placed.keySet());
+        var orders = List.copyOf(placed.values());
+        var requests = indexes.stream().map(accepted::get).toList();
+
+        Map<Integer, PurchaseResponse> purchased;
+        try {
+            purchased = productClient.purchaseProducts(purchaseKey, aggregate(requests))
+                    .stream()
+                    .collect(Collectors.toMap(PurchaseResponse::productId, Function.identity()));
+        } catch (RuntimeException e) {
+            log.warn("Aggregated purchase of {} orders failed", orders.size(), e);
+            failQuietly(orders, PENDING);
+            for (int i = 0; i < orders.size(); i++) {
+                results[indexes.get(i)] = failed(requests.get(i), orders.get(i).getId(), "Products could not be purchased: " + e.getMessage());
+            }
+            return;
+        }
+        try {
+            stateMachine.transitionAll(orders, PENDING, STOCK_RESERVED);
+        } catch (RuntimeException e) {
+            log.error("Failed to reserve the stock of {} purchased orders", orders.size(), e);
+            failQuietly(orders, PENDING);
+            releaseQuietly(purchaseKey, orders, requests);
+            for (int i = 0; i < orders.size(); i++) {
+                results[indexes.get(i)] = failed(requests.get(i), orders.get(i).getId(), "Order could not be updated: " + e.getMessage());
+            }
+            return;
+        }
+
+        var payments = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < orders.size(); i++) {
+            var order = orders.get(i);
+            var request = requests.get(i);
+            var customer = customers.get(request.customerId()).customer().orElseThrow();
+            payments.add(requestPayment(new PaymentRequest(
+                    request.amount(),
+                    request.paymentMethod(),
+                    order.getId(),
+                    order.getReference(),
+                    customer
+            )));
+        }
+
+        var paid = new ArrayList<Integer>();
+        var paidOrders = new ArrayList<Order>();
+        var paidRequests = new ArrayList<OrderRequest>();
+        var failedOrders = new ArrayList<Order>();
+        var failedRequests = new ArrayList<OrderRequest>();
+        var confirmations = new LinkedHashMap<Order, OrderConfirmation>();
+        for (int i = 0; i < orders.size(); i++) {
+            var order = orders.get(i);
+            var request = requests.get(i);
+            try {
+                payments.get(i).join();
+            } catch (CompletionException e) {
+                failedOrders.add(order);
+                failedRequests.add(request);
+                results[indexes.get(i)] = failed(request, order.getId(), "Payment failed: " + e.getCause().getMessage());
+                continue;
+            }
+            paid.add(i);
+            paidOrders.add(order);
+            paidRequests.add(request);
+            confirmations.put(order, new OrderConfirmation(
+                    request.reference(),
+                    request.amount(),
+                    request.paymentMethod(),
+                    customers.get(request.customerId()).customer().orElseThrow(),
+                    purchasedProducts(request, purchased)
+            ));
+        }
+
+        failQuietly(failedOrders, STOCK_RESERVED);
+        releaseQuietly(purchaseKey, failedOrders, failedRequests);
+        try {
+            stateMachine.transitionAll(paidOrders, STOCK_RESERVED, PAID);
+        } catch (RuntimeException e) {
+            log.error("Failed to mark {} orders as paid", paidOrders.size(), e);
+            failQuietly(paidOrders, STOCK_RESERVED);
+            releaseQuietly(purchaseKey, paidOrders, paidRequests);
+            for (var i : paid) {
+                results[indexes.get(i)] = failed(requests.get(i), orders.get(i).getId(), "Order could not be updated: " + e.getMessage());
+            }
+            return;
+        }
+        OrderStatus outcome = CONFIRMED;
+        String error = null;
+        try {
+            stateMachine.confirmAll(confirmations);
+        } catch (RuntimeException e) {
+            // the orders were paid, the relay never saw their confirmations
+            log.error("Failed to confirm {} paid orders", confirmations.size(), e);
+            outcome = PAID;
+            error = "Confirmation failed: " + e.getMessage();
+        }
+        for (var i : paid) {
+            results[indexes.get(i)] = new BulkOrderResult(requests.get(i).reference(), orders.get(i).getId(), outcome, error);
+        }
+    }
+
+    // a payment the pool cannot take fails its order before payment was ever requested
+    private CompletableFuture<Void> requestPayment(PaymentRequest paymentRequest) {
+        try {
+            return CompletableFuture.runAsync(() -> paymentClient.requestOrderPayment(paymentRequest), paymentExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many bulk payments are in progress", e));
+        }
+    }
+
+    private List<PurchaseRequest> aggregate(List<OrderRequest> requests) {
+        return requests.stream()
+                .flatMap(request -> request.products().stream())
+                .collect(Collectors.groupingBy(
+                        PurchaseRequest::productId,
+                        LinkedHashMap::new,
+                        Collectors.summingDouble(PurchaseRequest::quantity)
+                ))
+                .entrySet()
+                .stream()
+                .map(entry -> new PurchaseRequest(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private List<PurchaseResponse> purchasedProducts(OrderRequest request, Map<Integer, PurchaseResponse> purchased) {
+        return request.products()
+                .stream()
+                .map(line -> {
+                    var product = purchased.get(line.productId());
+                    return new PurchaseResponse(product.productId(), product.name(), product.description(), product.price(), line.quantity());
+                })
+                .toList();
+    }
+
+    // orders left behind are failed by the recovery sweep once their share is released, queueing it again is ignored
+    private void failQuietly(List<Order> orders, OrderStatus current) {
+        try {
+            stateMachine.transitionAll(orders, current, FAILED);
+        } catch (RuntimeException e) {
+            log.error("Failed to mark {} {} orders as failed", orders.size(), current, e);
+        }
+    }
+
+    // each failed order releases its own share of the aggregated purchase, so a retried release cannot count twice
+    private void releaseQuietly(String purchaseKey, List<Order> failedOrders, List<OrderRequest> failedRequests) {
+        for (int i = 0; i < failedOrders.size(); i++) {
+            var orderId = failedOrders.get(i).getId();
+            try {
+                releaseQueue.enqueue(purchaseKey, PurchaseKeys.releaseOf(purchaseKey, orderId), failedRequests.get(i).products());
+            } catch (RuntimeException e) {
+                log.error("Failed to queue the stock release of failed order {}", orderId, e);
+            }
+        }
+    }
+
+    private static BulkOrderResult failed(OrderRequest request, Integer orderId, String error) {
+        return new BulkOrderResult(request.reference(), orderId, orderId == null ? null : FAILED, error);
+    }
+
+    private record CustomerLookup(
+            Optional<CustomerResponse> customer,
+            Throwable error
+    ) {
+    }
+}
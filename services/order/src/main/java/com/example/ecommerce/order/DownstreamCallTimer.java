@@ -0,0 +1,35 @@
+package com.example.ecommerce.order;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Records {@code order.downstream.call}, the latency of every call made to another service while creating an order.
+ */
+@Component
+@RequiredArgsConstructor
+public class DownstreamCallTimer {
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T record(String call, Supplier<T> supplier) {
+        var sample = Timer.start(meterRegistry);
+        var outcome = "success";
+        try {
+            return supplier.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("order.downstream.call")
+                    .description("Latency of a single downstream call made while creating an order")
+                    .tag("call", call)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -18,11 +18,18 @@ import java.util.List;
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
-@Table(name = "customer_order")
+@Table(
+        name = "customer_order",
+        indexes = {
+                @Index(name = "idx_customer_order_created_date_id", columnList = "created_date desc, id desc"),
+                @Index(name = "idx_customer_order_customer_id_created_date_id", columnList = "customer_id, created_date desc, id desc")
+        }
+)
 public class Order {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_order_seq")
+    @SequenceGenerator(name = "customer_order_seq", sequenceName = "customer_order_seq", allocationSize = 50)
     private Integer id;
 
     @Column(unique = true, nullable = false)
@@ -35,6 +42,12 @@ public class Order {
 
     private String customerId;
 
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    // only set for the orders of a bulk request, see PurchaseKeys
+    private String purchaseKey;
+
     @OneToMany(mappedBy = "order")
     private List<OrderLine> orderLines;
 
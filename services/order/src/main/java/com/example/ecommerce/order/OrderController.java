@@ -1,31 +1,99 @@
 package com.example.ecommerce.order;
 
+import com.example.ecommerce.http.RequestDeadline;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final long MAX_WAIT_SECONDS = 30;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OrderService service;
+    private final BulkOrderService bulkOrderService;
+
+    @Value("${application.config.deadline.create-order:10s}")
+    private Duration createOrderDeadline;
 
     @PostMapping
-    public ResponseEntity<Integer> createOrder(@RequestBody @Valid OrderRequest request) {
-        return ResponseEntity.ok(this.service.createOrder(request));
+    public ResponseEntity<Integer> createOrder(
+            @RequestBody @Valid OrderRequest request,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            var orderId = this.service.submitOrder(request, idempotencyKey);
+            var statusUri = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/{order-id}/status")
+                    .buildAndExpand(orderId)
+                    .toUri();
+            return ResponseEntity.accepted()
+                    .location(statusUri)
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(orderId);
+        }
+        // every downstream call of a synchronous order only gets what is left of this budget
+        return ResponseEntity.ok(RequestDeadline.within(createOrderDeadline, () -> this.service.createOrder(request, idempotencyKey)));
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOrderResponse> createOrders(@RequestBody @Valid BulkOrderRequest request) {
+        return ResponseEntity.ok(this.bulkOrderService.createOrders(request.orders()));
     }
 
     @GetMapping
-    public ResponseEntity<List<OrderResponse>> findAll() {
-        return ResponseEntity.ok(this.service.findAllOrders());
+    public ResponseEntity<OrderPage> findAll(
+            @RequestParam(value = "customer-id", required = false) String customerId,
+            @RequestParam(value = "payment-method", required = false) PaymentMethod paymentMethod,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        var filter = new OrderFilter(customerId, paymentMethod, from, to);
+        var pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(this.service.findOrders(filter, cursor, pageSize));
     }
 
     @GetMapping("/{order-id}")
     public ResponseEntity<OrderResponse> findById(@PathVariable("order-id") Integer orderId) {
         return ResponseEntity.ok(this.service.findById(orderId));
     }
+
+    @GetMapping("/{order-id}/details")
+    public ResponseEntity<OrderDetailsResponse> findDetailsById(@PathVariable("order-id") Integer orderId) {
+        return ResponseEntity.ok(this.service.findDetailsById(orderId));
+    }
+
+    @GetMapping("/details")
+    public ResponseEntity<List<OrderDetailsResponse>> findDetailsByIds(@RequestParam("ids") List<Integer> orderIds) {
+        return ResponseEntity.ok(this.service.findDetailsByIds(orderIds));
+    }
+
+    @GetMapping("/{order-id}/status")
+    public CompletableFuture<ResponseEntity<OrderStatusResponse>> findStatus(
+            @PathVariable("order-id") Integer orderId,
+            @RequestParam(value = "known-status", required = false) OrderStatus knownStatus,
+            @RequestParam(value = "wait", defaultValue = "0") long waitSeconds
+    ) {
+        var wait = Duration.ofSeconds(Math.max(0, Math.min(waitSeconds, MAX_WAIT_SECONDS)));
+        return this.service.awaitStatus(orderId, knownStatus, wait)
+                .thenApply(ResponseEntity::ok);
+    }
 }
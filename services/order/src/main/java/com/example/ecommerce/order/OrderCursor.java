@@ -0,0 +1,38 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last order of a page in the {@code (createdDate desc, id desc)} ordering, encoded as an
+ * opaque string for clients.
+ */
+public record OrderCursor(
+        LocalDateTime createdDate,
+        Integer id
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        var raw = createdDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = raw.lastIndexOf(SEPARATOR);
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Invalid order cursor:: " + cursor);
+        }
+    }
+}
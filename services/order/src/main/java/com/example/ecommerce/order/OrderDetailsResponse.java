@@ -0,0 +1,11 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.orderline.OrderLineResponse;
+
+import java.util.List;
+
+public record OrderDetailsResponse(
+        OrderResponse order,
+        List<OrderLineResponse> orderLines
+) {
+}
@@ -0,0 +1,190 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.customer.CustomerCache;
+import com.example.ecommerce.customer.CustomerResponse;
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.exception.DeadlineExceededException;
+import com.example.ecommerce.exception.OrderQueueFullException;
+import com.example.ecommerce.http.RequestDeadline;
+import com.example.ecommerce.product.ProductClient;
+import com.example.ecommerce.product.ProductReleaseQueue;
+import com.example.ecommerce.product.PurchaseRequest;
+import com.example.ecommerce.product.PurchaseResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs the customer lookup and the product purchase of an order. In concurrent mode both calls are
+ * started at the same time on a bounded executor; if one of them fails after the other has already
+ * purchased the products, the purchased stock is released again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderFanOut {
+
+    private final CustomerCache customerCache;
+    private final ProductClient productClient;
+    private final ProductReleaseQueue releaseQueue;
+    private final MeterRegistry meterRegistry;
+    private final DownstreamCallTimer downstreamCallTimer;
+    @Qualifier("orderFanOutExecutor")
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${application.config.fan-out.concurrent:true}")
+    private boolean concurrent;
+    @Value("${application.config.fan-out.timeout:5s}")
+    private Duration timeout;
+
+    /**
+     * The products are purchased under {@code purchaseKey}, which is also the key their release is sent with.
+     */
+    public PreparedOrder prepare(String purchaseKey, OrderRequest request) {
+        var sample = Timer.start(meterRegistry);
+        try {
+            return concurrent ? prepareConcurrently(purchaseKey, request) : prepareSequentially(purchaseKey, request);
+        } finally {
+            sample.stop(Timer.builder("order.fan-out")
+                    .description("Time spent on the customer lookup and product purchase of an order")
+                    .tag("mode", concurrent ? "concurrent" : "sequential")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Prepares an order whose products were already purchased under {@code purchaseKey}: the product
+     * service answers from its record of that purchase. Nothing is released when it fails.
+     */
+    public PreparedOrder replay(String purchaseKey, OrderRequest request) {
+        return prepareSequentially(purchaseKey, request);
+    }
+
+    private PreparedOrder prepareSequentially(String purchaseKey, OrderRequest request) {
+        var customer = findCustomer(request.customerId());
+        return new PreparedOrder(customer, purchase(purchaseKey, request.products()));
+    }
+
+    private PreparedOrder prepareConcurrently(String purchaseKey, OrderRequest request) {
+        var abandoned = new AtomicBoolean(false);
+        var customerFuture = submit(() -> findCustomer(request.customerId()));
+        CompletableFuture<List<PurchaseResponse>> purchaseFuture;
+        try {
+            purchaseFuture = submit(() -> {
+                if (abandoned.get()) {
+                    throw new CancellationException("Order preparation abandoned before the products were purchased");
+                }
+                return purchase(purchaseKey, request.products());
+            });
+        } catch (OrderQueueFullException e) {
+            customerFuture.cancel(false);
+            throw e;
+        }
+
+        var prepared = new CompletableFuture<PreparedOrder>();
+        customerFuture.whenComplete((customer, ex) -> failFast(prepared, ex));
+        purchaseFuture.whenComplete((products, ex) -> failFast(prepared, ex));
+        customerFuture.thenCombine(purchaseFuture, PreparedOrder::new).thenAccept(prepared::complete);
+
+        var wait = RequestDeadline.cap(timeout);
+        try {
+            return prepared.get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            abandon(purchaseKey, abandoned, customerFuture, purchaseFuture);
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            abandon(purchaseKey, abandoned, customerFuture, purchaseFuture);
+            if (wait.compareTo(timeout) < 0) {
+                throw new DeadlineExceededException("Cannot create order:: Customer or product service did not respond before the request deadline");
+            }
+            throw new BusinessException("Cannot create order:: Customer or product service did not respond in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(purchaseKey, abandoned, customerFuture, purchaseFuture);
+            throw new BusinessException("Cannot create order:: Order preparation was interrupted");
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new OrderQueueFullException("Cannot create order:: Too many orders are being prepared, retry later");
+        }
+    }
+
+    private void failFast(CompletableFuture<PreparedOrder> prepared, Throwable ex) {
+        if (ex != null) {
+            prepared.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * The purchase future is never cancelled: a purchase that has not started yet sees the flag and skips
+     * the remote call, while one that is already running completes normally and has its stock released.
+     */
+    private void abandon(
+            String purchaseKey,
+            AtomicBoolean abandoned,
+            CompletableFuture<CustomerResponse> customerFuture,
+            CompletableFuture<List<PurchaseResponse>> purchaseFuture
+    ) {
+        abandoned.set(true);
+        customerFuture.cancel(false);
+        // a purchase that failed took no stock and was already reported to the caller
+        purchaseFuture.handle((products, ex) -> {
+            if (ex == null) {
+                try {
+                    releaseProducts(purchaseKey, products);
+                } catch (RuntimeException e) {
+                    log.error("Failed to release stock of an abandoned order", e);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Queues the release instead of calling the product service: the relay sends it outside any request
+     * deadline and retries it until the stock is back.
+     */
+    private void releaseProducts(String purchaseKey, List<PurchaseResponse> purchasedProducts) {
+        releaseQueue.enqueue(purchaseKey, purchaseKey, purchasedProducts
+                .stream()
+                .map(product -> new PurchaseRequest(product.productId(), product.quantity()))
+                .toList());
+    }
+
+    private CustomerResponse findCustomer(String customerId) {
+        return customerCache.findCustomerById(customerId)
+                .orElseThrow(() -> new BusinessException("Cannot create order:: No customer exists with the provided ID"));
+    }
+
+    private List<PurchaseResponse> purchase(String purchaseKey, List<PurchaseRequest> products) {
+        return downstreamCallTimer.record("product", () -> productClient.purchaseProducts(purchaseKey, products));
+    }
+
+    private static RuntimeException unwrap(Throwable ex) {
+        var cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new BusinessException("Cannot create order:: " + cause.getMessage());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce.order;
+
+import java.time.LocalDateTime;
+
+public record OrderFilter(
+        String customerId,
+        PaymentMethod paymentMethod,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+}
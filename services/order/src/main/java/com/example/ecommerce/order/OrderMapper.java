@@ -1,27 +1,60 @@
 package com.example.ecommerce.order;
 
+import com.example.ecommerce.orderline.OrderLineMapper;
+import com.example.ecommerce.product.PurchaseRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 public class OrderMapper {
 
+    private final OrderLineMapper orderLineMapper;
+
     public Order mapOrderRequestToOrder(OrderRequest request) {
         if (request == null) return null;
         return Order.builder()
                 .id(request.id())
                 .reference(request.reference())
+                .totalAmount(request.amount())
                 .paymentMethod(request.paymentMethod())
                 .customerId(request.customerId())
                 .build();
     }
 
+    public OrderRequest mapOrderToOrderRequest(Order order) {
+        return new OrderRequest(
+                order.getId(),
+                order.getReference(),
+                order.getTotalAmount(),
+                order.getPaymentMethod(),
+                order.getCustomerId(),
+                order.getOrderLines()
+                        .stream()
+                        .map(orderLine -> new PurchaseRequest(orderLine.getProductId(), orderLine.getQuantity()))
+                        .toList()
+        );
+    }
+
     public OrderResponse mapOrderToOrderResponse(Order order) {
         return new OrderResponse(
                 order.getId(),
                 order.getReference(),
                 order.getTotalAmount(),
                 order.getPaymentMethod(),
-                order.getCustomerId()
+                order.getCustomerId(),
+                order.getStatus(),
+                order.getCreatedDate()
+        );
+    }
+
+    public OrderDetailsResponse mapOrderToOrderDetailsResponse(Order order) {
+        return new OrderDetailsResponse(
+                mapOrderToOrderResponse(order),
+                order.getOrderLines()
+                        .stream()
+                        .map(orderLineMapper::mapOrderLineToOrderLineResponse)
+                        .toList()
         );
     }
 }
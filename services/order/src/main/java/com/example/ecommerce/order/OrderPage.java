@@ -0,0 +1,9 @@
+package com.example.ecommerce.order;
+
+import java.util.List;
+
+public record OrderPage(
+        List<OrderResponse> content,
+        String nextCursor
+) {
+}
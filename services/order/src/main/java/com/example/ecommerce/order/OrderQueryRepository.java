@@ -0,0 +1,12 @@
+package com.example.ecommerce.order;
+
+import java.util.List;
+
+public interface OrderQueryRepository {
+
+    /**
+     * Reads at most {@code limit} orders matching the filter that come after the cursor in
+     * {@code (createdDate desc, id desc)} order, projected straight into responses.
+     */
+    List<OrderResponse> findPage(OrderFilter filter, OrderCursor after, int limit);
+}
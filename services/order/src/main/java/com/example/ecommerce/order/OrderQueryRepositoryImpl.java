@@ -0,0 +1,61 @@
+package com.example.ecommerce.order;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrderQueryRepositoryImpl implements OrderQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<OrderResponse> findPage(OrderFilter filter, OrderCursor after, int limit) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(OrderResponse.class);
+        var order = query.from(Order.class);
+        var id = order.<Integer>get("id");
+        var createdDate = order.<LocalDateTime>get("createdDate");
+
+        var predicates = new ArrayList<Predicate>();
+        if (filter.customerId() != null) {
+            predicates.add(cb.equal(order.get("customerId"), filter.customerId()));
+        }
+        if (filter.paymentMethod() != null) {
+            predicates.add(cb.equal(order.get("paymentMethod"), filter.paymentMethod()));
+        }
+        if (filter.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdDate, filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(cb.lessThan(createdDate, filter.to()));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(createdDate, after.createdDate()),
+                    cb.and(cb.equal(createdDate, after.createdDate()), cb.lessThan(id, after.id()))
+            ));
+        }
+
+        query.select(cb.construct(
+                        OrderResponse.class,
+                        id,
+                        order.get("reference"),
+                        order.get("totalAmount"),
+                        order.get("paymentMethod"),
+                        order.get("customerId"),
+                        order.get("status"),
+                        createdDate
+                ))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(createdDate), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,6 +1,90 @@
 package com.example.ecommerce.order;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface OrderRepository extends JpaRepository<Order, Integer> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderQueryRepository {
+
+    @Query("select new com.example.ecommerce.order.OrderStatusResponse(o.id, o.reference, o.status, o.lastModifiedDate) from Order o where o.id = :id")
+    Optional<OrderStatusResponse> findStatusById(@Param("id") Integer id);
+
+    @Query("select o.reference from Order o where o.reference in :references")
+    List<String> findExistingReferences(@Param("references") Collection<String> references);
+
+    @EntityGraph(attributePaths = "orderLines")
+    Optional<Order> findWithOrderLinesById(Integer id);
+
+    @EntityGraph(attributePaths = "orderLines")
+    List<Order> findAllWithOrderLinesByIdIn(Collection<Integer> ids);
+
+    /**
+     * Orders in one of {@code statuses} that nobody has touched since {@code staleBefore}, oldest first.
+     */
+    @Query("""
+            select o from Order o
+            where o.status in :statuses
+              and o.createdDate < :staleBefore
+              and (o.lastModifiedDate is null or o.lastModifiedDate < :staleBefore)
+            order by o.createdDate""")
+    List<Order> findStale(
+            @Param("statuses") Collection<OrderStatus> statuses,
+            @Param("staleBefore") LocalDateTime staleBefore,
+            Limit limit
+    );
+
+    /**
+     * Takes over an order still in {@code status} by stamping it with {@code now}. Fails when another
+     * worker claimed or moved it after {@code staleBefore}.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update Order o set o.lastModifiedDate = :now
+            where o.id = :id and o.createdDate = :createdDate
+              and o.status = :status
+              and (o.lastModifiedDate is null or o.lastModifiedDate < :staleBefore)""")
+    int claim(
+            @Param("id") Integer id,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("status") OrderStatus status,
+            @Param("staleBefore") LocalDateTime staleBefore,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Matches the order's creation date as well as its ID, which together form the primary key, so that
+     * only the order's own partition is scanned.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :next, o.lastModifiedDate = :now where o.id = :id and o.createdDate = :createdDate and o.status = :current")
+    int updateStatus(
+            @Param("id") Integer id,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("current") OrderStatus current,
+            @Param("next") OrderStatus next,
+            @Param("now") LocalDateTime now
+    );
+
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :next, o.lastModifiedDate = :now where o.id in :ids and o.createdDate between :from and :to and o.status = :current")
+    int updateStatusAll(
+            @Param("ids") Collection<Integer> ids,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("current") OrderStatus current,
+            @Param("next") OrderStatus next,
+            @Param("now") LocalDateTime now
+    );
 }
@@ -3,6 +3,7 @@ package com.example.ecommerce.order;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public record OrderResponse(
@@ -10,6 +11,8 @@ public record OrderResponse(
         String reference,
         BigDecimal amount,
         PaymentMethod paymentMethod,
-        String customerId
+        String customerId,
+        OrderStatus status,
+        LocalDateTime createdDate
 ) {
 }
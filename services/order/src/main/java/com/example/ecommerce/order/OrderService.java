@@ -1,85 +1,352 @@
 package com.example.ecommerce.order;
 
-import com.example.ecommerce.customer.CustomerClient;
+import com.example.ecommerce.archive.OrderArchiveRepository;
 import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.exception.OrderInProgressException;
+import com.example.ecommerce.exception.OrderQueueFullException;
+import com.example.ecommerce.idempotency.IdempotencyStore;
 import com.example.ecommerce.kafka.OrderConfirmation;
-import com.example.ecommerce.kafka.OrderProducer;
-import com.example.ecommerce.orderline.OrderLineRequest;
-import com.example.ecommerce.orderline.OrderLineService;
 import com.example.ecommerce.payment.PaymentClient;
 import com.example.ecommerce.payment.PaymentRequest;
-import com.example.ecommerce.product.ProductClient;
+import com.example.ecommerce.product.ProductReleaseQueue;
+import com.example.ecommerce.product.PurchaseKeys;
 import com.example.ecommerce.product.PurchaseRequest;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpClientErrorException;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.example.ecommerce.order.OrderStatus.FAILED;
+import static com.example.ecommerce.order.OrderStatus.PAID;
+import static com.example.ecommerce.order.OrderStatus.PENDING;
+import static com.example.ecommerce.order.OrderStatus.STOCK_RESERVED;
+
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OrderService {
 
+    static final int MAX_DETAILS_BATCH_SIZE = 100;
+
     private final OrderRepository repository;
     private final OrderMapper mapper;
-    private final CustomerClient customerClient;
-    private final ProductClient productClient;
-    private final OrderLineService orderLineService;
-    private final OrderProducer orderProducer;
+    private final OrderStateMachine stateMachine;
+    private final OrderFanOut orderFanOut;
     private final PaymentClient paymentClient;
+    private final DownstreamCallTimer downstreamCallTimer;
+    private final OrderWorkQueue workQueue;
+    private final OrderStatusNotifier statusNotifier;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderArchiveRepository archiveRepository;
+    private final ProductReleaseQueue releaseQueue;
+    @Qualifier("orderStatusExecutor")
+    private final ThreadPoolTaskExecutor statusExecutor;
+
+    @Value("${application.config.work-queue.stale-after:10m}")
+    private Duration staleAfter;
+
+    /**
+     * A repeated {@code idempotencyKey} never reaches customer, product or payment again: it answers with
+     * the outcome of the order created by the first submission, or with {@link OrderInProgressException}
+     * while that order is still being processed.
+     */
+    public Integer createOrder(OrderRequest request, String idempotencyKey) {
+        var existing = idempotencyStore.findOrderId(idempotencyKey, request);
+        if (existing.isPresent()) {
+            return outcome(existing.get());
+        }
+        Order order;
+        try {
+            order = stateMachine.placePendingOrder(request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            return outcome(claimedOrderId(idempotencyKey, request, e));
+        }
+        idempotencyStore.remember(idempotencyKey, order.getId(), request);
+        processOrder(order, request);
+        return order.getId();
+    }
+
+    public Integer submitOrder(OrderRequest request, String idempotencyKey) {
+        var existing = idempotencyStore.findOrderId(idempotencyKey, request);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        if (!workQueue.tryReserve()) {
+            throw new OrderQueueFullException("Cannot accept order:: Too many orders are being processed, retry later");
+        }
+        Order order;
+        try {
+            order = stateMachine.placePendingOrder(request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            workQueue.cancelReservation();
+            return claimedOrderId(idempotencyKey, request, e);
+        } catch (RuntimeException e) {
+            workQueue.cancelReservation();
+            throw e;
+        }
+        idempotencyStore.remember(idempotencyKey, order.getId(), request);
+        try {
+            workQueue.submit(() -> processAcceptedOrder(order, request));
+        } catch (RejectedExecutionException e) {
+            stateMachine.transition(order, PENDING, FAILED);
+            throw new OrderQueueFullException("Cannot accept order:: The order service is shutting down, retry later");
+        }
+        return order.getId();
+    }
+
+    /**
+     * Queues an unfinished order again whose processing was lost, e.g. with the work queue of a stopped
+     * instance. Returns false when the queue has no room left.
+     */
+    public boolean resumeOrder(Order order) {
+        if (!workQueue.tryReserve()) {
+            return false;
+        }
+        var request = mapper.mapOrderToOrderRequest(order);
+        try {
+            workQueue.submit(() -> processAcceptedOrder(order, request));
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unfinished orders that have not been claimed or moved for longer than this are considered lost.
+     * It has to exceed the time an accepted order can wait in the queue plus its processing time.
+     */
+    public LocalDateTime staleBefore() {
+        return LocalDateTime.now().minus(staleAfter);
+    }
+
+    // the violation is only a duplicate submission if the key is now taken, otherwise it is rethrown
+    private Integer claimedOrderId(String idempotencyKey, OrderRequest request, DataIntegrityViolationException e) {
+        return idempotencyStore.findOrderId(idempotencyKey, request).orElseThrow(() -> e);
+    }
 
-    @Transactional
-    public Integer createOrder(OrderRequest request) {
-        var customer = this.customerClient.findCustomerById(request.customerId())
-                .orElseThrow(() -> new BusinessException("Cannot create order:: No customer exists with the provided ID"));
+    // a duplicate does not hold its request thread while the first submission is processed
+    private Integer outcome(Integer orderId) {
+        var status = findStatus(orderId).status();
+        if (!status.isTerminal()) {
+            throw new OrderInProgressException(String.format("Cannot create order:: Order %d is still being processed", orderId), orderId);
+        }
+        if (status == FAILED) {
+            throw new BusinessException(String.format("Cannot create order:: Order %d failed", orderId));
+        }
+        return orderId;
+    }
 
-        var purchasedProducts = productClient.purchaseProducts(request.products());
+    private void processAcceptedOrder(Order order, OrderRequest request) {
+        if (!stateMachine.claim(order, staleBefore())) {
+            log.info("Order {} is already being processed elsewhere", order.getId());
+            return;
+        }
+        switch (order.getStatus()) {
+            case PENDING -> processPendingOrder(order, request);
+            case STOCK_RESERVED, PAID -> resumePurchasedOrder(order, request);
+            default -> log.info("Order {} is already {}", order.getId(), order.getStatus());
+        }
+    }
 
-        var order = this.repository.save(mapper.mapOrderRequestToOrder(request));
+    /**
+     * A bulk order found PENDING was lost in the middle of its batch, possibly after the aggregated
+     * purchase: it fails and gives back its share, which the product service ignores when the purchase
+     * never happened. A single order whose release is still queued was already given up.
+     */
+    private void processPendingOrder(Order order, OrderRequest request) {
+        if (order.getPurchaseKey() != null) {
+            stateMachine.transition(order, PENDING, FAILED);
+            releaseQuietly(order, request.products());
+        } else if (releaseQueue.isQueued(releaseKey(order))) {
+            stateMachine.transition(order, PENDING, FAILED);
+        } else {
+            processOrder(order, request);
+        }
+    }
 
-        for (PurchaseRequest purchaseRequest : request.products()) {
-            orderLineService.saveOrderLine(
-                    new OrderLineRequest(
-                            null,
-                            order.getId(),
-                            purchaseRequest.productId(),
-                            purchaseRequest.quantity()
-                    )
-            );
+    /**
+     * Finishes an order that stopped after its purchase. Its products are not purchased again but
+     * answered from the product service's record of the purchase, and the payment service pays an order
+     * at most once, so whatever already happened before the order was lost is not repeated. A product
+     * service that no longer holds the stock of an unpaid order, because it was released while the order
+     * could not be failed, fails it now; any other order that cannot be prepared stays as it is for the
+     * next sweep.
+     */
+    private void resumePurchasedOrder(Order order, OrderRequest request) {
+        PreparedOrder prepared;
+        try {
+            prepared = orderFanOut.replay(purchaseKey(order), request);
+        } catch (HttpClientErrorException e) {
+            if (order.getStatus() != STOCK_RESERVED) {
+                throw e;
+            }
+            log.warn("Stock of order {} was already released, failing it", order.getId());
+            stateMachine.transition(order, STOCK_RESERVED, FAILED);
+            return;
+        }
+        if (order.getStatus() == STOCK_RESERVED) {
+            pay(order, request, prepared);
         }
+        confirm(order, request, prepared);
+    }
+
+    private void processOrder(Order order, OrderRequest request) {
+        PreparedOrder prepared;
+        try {
+            prepared = orderFanOut.prepare(purchaseKey(order), request);
+        } catch (RuntimeException e) {
+            stateMachine.transition(order, PENDING, FAILED);
+            throw e;
+        }
+        stateMachine.transition(order, PENDING, STOCK_RESERVED);
+        pay(order, request, prepared);
+        confirm(order, request, prepared);
+    }
+
+    private void pay(Order order, OrderRequest request, PreparedOrder prepared) {
         var paymentRequest = new PaymentRequest(
                 request.amount(),
                 request.paymentMethod(),
                 order.getId(),
                 order.getReference(),
-                customer
+                prepared.customer()
         );
-        paymentClient.requestOrderPayment(paymentRequest);
+        try {
+            downstreamCallTimer.record("payment", () -> paymentClient.requestOrderPayment(paymentRequest));
+        } catch (RuntimeException e) {
+            stateMachine.transition(order, STOCK_RESERVED, FAILED);
+            releaseQuietly(order, request.products());
+            throw e;
+        }
+        stateMachine.transition(order, STOCK_RESERVED, PAID);
+    }
 
-        orderProducer.sendOrderConfirmation(
+    private void confirm(Order order, OrderRequest request, PreparedOrder prepared) {
+        stateMachine.confirm(
+                order,
                 new OrderConfirmation(
                         request.reference(),
                         request.amount(),
                         request.paymentMethod(),
-                        customer,
-                        purchasedProducts)
+                        prepared.customer(),
+                        prepared.purchasedProducts())
         );
+    }
 
-        return order.getId();
+    private void releaseQuietly(Order order, List<PurchaseRequest> products) {
+        try {
+            releaseQueue.enqueue(purchaseKey(order), releaseKey(order), products);
+        } catch (RuntimeException e) {
+            log.error("Failed to queue the stock release of failed order {}", order.getId(), e);
+        }
     }
 
-    public List<OrderResponse> findAllOrders() {
-        return this.repository.findAll()
-                .stream()
-                .map(this.mapper::mapOrderToOrderResponse)
-                .collect(Collectors.toList());
+    private static String purchaseKey(Order order) {
+        return order.getPurchaseKey() != null ? order.getPurchaseKey() : PurchaseKeys.forOrder(order.getId());
     }
 
+    // an order of a bulk purchase releases only its own share of it
+    private static String releaseKey(Order order) {
+        return order.getPurchaseKey() != null ? PurchaseKeys.releaseOf(order.getPurchaseKey(), order.getId()) : PurchaseKeys.forOrder(order.getId());
+    }
+
+    public OrderPage findOrders(OrderFilter filter, String cursor, int size) {
+        var after = cursor == null ? null : OrderCursor.decode(cursor);
+        var orders = this.repository.findPage(filter, after, size + 1);
+        if (orders.size() <= size) {
+            return new OrderPage(orders, null);
+        }
+        var page = orders.subList(0, size);
+        var last = page.get(size - 1);
+        return new OrderPage(page, new OrderCursor(last.createdDate(), last.id()).encode());
+    }
+
+    /**
+     * Lookups by ID cannot prune partitions: every partition's primary key index is probed, followed by
+     * the archive when none of them holds the order.
+     */
     public OrderResponse findById(Integer id) {
         return this.repository.findById(id)
                 .map(this.mapper::mapOrderToOrderResponse)
+                .or(() -> this.archiveRepository.findDetailsById(id).map(OrderDetailsResponse::order))
+                .orElseThrow(() -> new EntityNotFoundException(String.format("No order found with the provided ID: %d", id)));
+    }
+
+    public OrderDetailsResponse findDetailsById(Integer id) {
+        return this.repository.findWithOrderLinesById(id)
+                .map(this.mapper::mapOrderToOrderDetailsResponse)
+                .or(() -> this.archiveRepository.findDetailsById(id))
                 .orElseThrow(() -> new EntityNotFoundException(String.format("No order found with the provided ID: %d", id)));
     }
+
+    /**
+     * Loads the orders and all of their lines in a single statement, plus one for those that were
+     * archived. Unknown IDs are skipped and the result follows the order of the requested IDs.
+     */
+    public List<OrderDetailsResponse> findDetailsByIds(List<Integer> ids) {
+        var distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > MAX_DETAILS_BATCH_SIZE) {
+            throw new BusinessException(String.format("Cannot load order details:: At most %d order IDs are allowed per request", MAX_DETAILS_BATCH_SIZE));
+        }
+        var orders = this.repository.findAllWithOrderLinesByIdIn(distinctIds)
+                .stream()
+                .map(this.mapper::mapOrderToOrderDetailsResponse)
+                .collect(Collectors.toMap(details -> details.order().id(), Function.identity(), (first, second) -> first, HashMap::new));
+        var archivedIds = distinctIds.stream().filter(id -> !orders.containsKey(id)).toList();
+        this.archiveRepository.findAllDetailsByIds(archivedIds)
+                .forEach(details -> orders.put(details.order().id(), details));
+        return distinctIds.stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public OrderStatusResponse findStatus(Integer id) {
+        return this.repository.findStatusById(id)
+                .or(() -> this.archiveRepository.findStatusById(id))
+                .orElseThrow(() -> new EntityNotFoundException(String.format("No order found with the provided ID: %d", id)));
+    }
+
+    /**
+     * Completes with the current status as soon as it differs from {@code knownStatus}, or after
+     * {@code wait} with whatever the status is then.
+     */
+    public CompletableFuture<OrderStatusResponse> awaitStatus(Integer id, OrderStatus knownStatus, Duration wait) {
+        var current = findStatus(id);
+        if (knownStatus == null || wait.isZero() || current.status() != knownStatus) {
+            return CompletableFuture.completedFuture(current);
+        }
+        var change = statusNotifier.awaitChange(id, wait);
+        var recheck = findStatus(id);
+        if (recheck.status() != knownStatus) {
+            change.cancel(false);
+            return CompletableFuture.completedFuture(recheck);
+        }
+        return change
+                .handleAsync((status, ex) -> findStatus(id), statusExecutor)
+                .exceptionally(ex -> {
+                    var cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof RejectedExecutionException) {
+                        throw new OrderQueueFullException("Cannot read order status:: Too many status polls are waiting, retry later");
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
 }
@@ -0,0 +1,152 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.idempotency.IdempotencyStore;
+import com.example.ecommerce.kafka.OrderConfirmation;
+import com.example.ecommerce.orderline.OrderLineRequest;
+import com.example.ecommerce.orderline.OrderLineService;
+import com.example.ecommerce.outbox.OrderOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the short local transactions of order creation. Every method commits before returning, so no
+ * database connection is held while the order service waits on customer, product or payment.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderStateMachine {
+
+    private final OrderRepository repository;
+    private final OrderMapper mapper;
+    private final OrderLineService orderLineService;
+    private final OrderOutbox orderOutbox;
+    private final IdempotencyStore idempotencyStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public Order placePendingOrder(OrderRequest request, String idempotencyKey) {
+        return placePendingOrder(request, idempotencyKey, null);
+    }
+
+    @Transactional
+    public Order placePendingOrder(OrderRequest request, String idempotencyKey, String purchaseKey) {
+        var order = mapper.mapOrderRequestToOrder(request);
+        order.setStatus(OrderStatus.PENDING);
+        order.setPurchaseKey(purchaseKey);
+        order = repository.save(order);
+
+        var orderId = order.getId();
+        if (idempotencyKey != null) {
+            idempotencyStore.claim(idempotencyKey, orderId, request);
+        }
+        orderLineService.saveOrderLines(
+                request.products()
+                        .stream()
+                        .map(purchaseRequest -> new OrderLineRequest(
+                                null,
+                                orderId,
+                                purchaseRequest.productId(),
+                                purchaseRequest.quantity()
+                        ))
+                        .toList()
+        );
+        return order;
+    }
+
+    /**
+     * Places all orders and their lines in one transaction so that Hibernate can send both as JDBC
+     * batches. Returns the saved orders in request order.
+     */
+    @Transactional
+    public List<Order> placePendingOrders(List<OrderRequest> requests, String purchaseKey) {
+        var orders = repository.saveAll(
+                requests
+                        .stream()
+                        .map(request -> {
+                            var order = mapper.mapOrderRequestToOrder(request);
+                            order.setStatus(OrderStatus.PENDING);
+                            order.setPurchaseKey(purchaseKey);
+                            return order;
+                        })
+                        .toList()
+        );
+        var orderLines = new ArrayList<OrderLineRequest>();
+        for (int i = 0; i < orders.size(); i++) {
+            var orderId = orders.get(i).getId();
+            requests.get(i).products().forEach(purchaseRequest -> orderLines.add(new OrderLineRequest(
+                    null,
+                    orderId,
+                    purchaseRequest.productId(),
+                    purchaseRequest.quantity()
+            )));
+        }
+        orderLineService.saveOrderLines(orderLines);
+        return orders;
+    }
+
+    @Transactional
+    public void confirm(Order order, OrderConfirmation orderConfirmation) {
+        transition(order, OrderStatus.PAID, OrderStatus.CONFIRMED);
+        orderOutbox.enqueue(orderConfirmation);
+    }
+
+    @Transactional
+    public void confirmAll(Map<Order, OrderConfirmation> orderConfirmations) {
+        transitionAll(orderConfirmations.keySet(), OrderStatus.PAID, OrderStatus.CONFIRMED);
+        orderOutbox.enqueueAll(List.copyOf(orderConfirmations.values()));
+    }
+
+    /**
+     * Claims an order in its loaded status for processing unless another worker claimed or moved it after
+     * {@code staleBefore}, so that an order is never processed by a queue worker and the recovery sweep
+     * at the same time.
+     */
+    public boolean claim(Order order, LocalDateTime staleBefore) {
+        return repository.claim(order.getId(), order.getCreatedDate(), order.getStatus(), staleBefore, LocalDateTime.now()) == 1;
+    }
+
+    public void transition(Order order, OrderStatus current, OrderStatus next) {
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalStateException(String.format("Order status cannot change from %s to %s", current, next));
+        }
+        var orderId = order.getId();
+        var updated = repository.updateStatus(orderId, order.getCreatedDate(), current, next, LocalDateTime.now());
+        if (updated == 0) {
+            throw new BusinessException(String.format("Cannot move order %d from %s to %s:: order is no longer %s", orderId, current, next, current));
+        }
+        eventPublisher.publishEvent(new OrderStatusChanged(orderId, next));
+    }
+
+    /**
+     * Updates the orders in one statement, restricted to the range between their earliest and latest
+     * creation date so that a batch placed together only touches its own partition. Either all of them
+     * move or none does.
+     */
+    @Transactional
+    public void transitionAll(Collection<Order> orders, OrderStatus current, OrderStatus next) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        if (!current.canTransitionTo(next)) {
+            throw new IllegalStateException(String.format("Order status cannot change from %s to %s", current, next));
+        }
+        var orderIds = orders.stream().map(Order::getId).toList();
+        var from = orders.stream().map(Order::getCreatedDate).min(Comparator.naturalOrder()).orElseThrow();
+        var to = orders.stream().map(Order::getCreatedDate).max(Comparator.naturalOrder()).orElseThrow();
+        var updated = repository.updateStatusAll(orderIds, from, to, current, next, LocalDateTime.now());
+        if (updated != orderIds.size()) {
+            throw new BusinessException(String.format("Cannot move %d orders from %s to %s:: only %d are still %s", orderIds.size(), current, next, updated, current));
+        }
+        orderIds.forEach(orderId -> eventPublisher.publishEvent(new OrderStatusChanged(orderId, next)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ecommerce.order;
+
+public enum OrderStatus {
+    PENDING,
+    STOCK_RESERVED,
+    PAID,
+    CONFIRMED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == CONFIRMED || this == FAILED;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case PENDING -> next == STOCK_RESERVED || next == FAILED;
+            case STOCK_RESERVED -> next == PAID || next == FAILED;
+            case PAID -> next == CONFIRMED;
+            case CONFIRMED, FAILED -> false;
+        };
+    }
+}
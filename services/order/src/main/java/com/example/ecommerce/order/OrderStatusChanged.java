@@ -0,0 +1,7 @@
+package com.example.ecommerce.order;
+
+public record OrderStatusChanged(
+        Integer orderId,
+        OrderStatus status
+) {
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce.order;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets status long-polls wait in memory instead of re-querying the database. Waiters are only woken by
+ * transitions made by this instance; on timeout the caller falls back to reading the current status.
+ */
+@Component
+public class OrderStatusNotifier {
+
+    private final ConcurrentMap<Integer, Set<CompletableFuture<OrderStatus>>> waiters = new ConcurrentHashMap<>();
+
+    public CompletableFuture<OrderStatus> awaitChange(Integer orderId, Duration timeout) {
+        var waiter = new CompletableFuture<OrderStatus>();
+        waiters.compute(orderId, (id, registered) -> {
+            var orderWaiters = registered == null ? new HashSet<CompletableFuture<OrderStatus>>() : registered;
+            orderWaiters.add(waiter);
+            return orderWaiters;
+        });
+        waiter.whenComplete((status, ex) -> waiters.computeIfPresent(orderId, (id, registered) -> {
+            registered.remove(waiter);
+            return registered.isEmpty() ? null : registered;
+        }));
+        return waiter.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(OrderStatusChanged event) {
+        var orderWaiters = waiters.remove(event.orderId());
+        if (orderWaiters != null) {
+            orderWaiters.forEach(waiter -> waiter.complete(event.status()));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce.order;
+
+import java.time.LocalDateTime;
+
+public record OrderStatusResponse(
+        Integer id,
+        String reference,
+        OrderStatus status,
+        LocalDateTime lastModifiedDate
+) {
+}
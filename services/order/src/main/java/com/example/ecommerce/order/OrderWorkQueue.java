@@ -0,0 +1,60 @@
+package com.example.ecommerce.order;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded queue for orders accepted asynchronously. A slot has to be reserved before the order is
+ * persisted, so a full queue rejects the submission without leaving a pending order behind. The queue
+ * only lives in memory; {@link StaleOrderRecovery} queues orders again that were lost with it.
+ */
+@Component
+@Slf4j
+public class OrderWorkQueue {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final Semaphore slots;
+
+    public OrderWorkQueue(
+            @Qualifier("orderProcessingExecutor") ThreadPoolTaskExecutor executor,
+            @Value("${application.config.work-queue.capacity:500}") int capacity
+    ) {
+        this.executor = executor;
+        this.slots = new Semaphore(capacity);
+    }
+
+    public boolean tryReserve() {
+        return slots.tryAcquire();
+    }
+
+    public void cancelReservation() {
+        slots.release();
+    }
+
+    /**
+     * Runs the task on the processing executor and frees its slot afterwards. Throws
+     * {@link RejectedExecutionException}, with the slot already freed, when the executor is shutting down.
+     */
+    public void submit(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Asynchronous order processing failed", e);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw e;
+        }
+    }
+}
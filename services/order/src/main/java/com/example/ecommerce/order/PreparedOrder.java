@@ -0,0 +1,12 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.customer.CustomerResponse;
+import com.example.ecommerce.product.PurchaseResponse;
+
+import java.util.List;
+
+public record PreparedOrder(
+        CustomerResponse customer,
+        List<PurchaseResponse> purchasedProducts
+) {
+}
@@ -0,0 +1,55 @@
+package com.example.ecommerce.order;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.ecommerce.order.OrderStatus.PAID;
+import static com.example.ecommerce.order.OrderStatus.PENDING;
+import static com.example.ecommerce.order.OrderStatus.STOCK_RESERVED;
+
+/**
+ * Queues orders again whose processing was lost because the instance holding them stopped or crashed:
+ * PENDING orders that were accepted but never processed, and STOCK_RESERVED or PAID orders that stopped
+ * halfway. Runs right after startup and then periodically, and only fills the free slots of the work
+ * queue.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StaleOrderRecovery {
+
+    private static final List<OrderStatus> UNFINISHED = List.of(PENDING, STOCK_RESERVED, PAID);
+
+    private final OrderRepository repository;
+    private final OrderService orderService;
+
+    @Value("${application.config.work-queue.recovery-batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${application.config.work-queue.recovery-interval-ms:60000}")
+    public void resumeStaleOrders() {
+        var stale = repository.findStale(UNFINISHED, orderService.staleBefore(), Limit.of(batchSize));
+        if (stale.isEmpty()) {
+            return;
+        }
+        var orders = repository.findAllWithOrderLinesByIdIn(stale.stream().map(Order::getId).toList())
+                .stream()
+                .sorted(Comparator.comparing(Order::getCreatedDate))
+                .toList();
+        var resumed = 0;
+        for (var order : orders) {
+            if (!orderService.resumeOrder(order)) {
+                break;
+            }
+            resumed++;
+        }
+        log.info("Resumed {} of {} stale orders", resumed, orders.size());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ecommerce.orderline;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/order-lines")
 @RequiredArgsConstructor
 public class OrderLineController {
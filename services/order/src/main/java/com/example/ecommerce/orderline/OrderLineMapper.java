@@ -7,7 +7,7 @@ import org.springframework.stereotype.Service;
 public class OrderLineMapper {
     public OrderLine mapOrderLineRequestToOrderLine(OrderLineRequest request) {
         return OrderLine.builder()
-                .id(request.orderId())
+                .id(request.id())
                 .productId(request.productId())
                 .order(Order.builder()
                         .id(request.orderId())
@@ -20,6 +20,7 @@ public class OrderLineMapper {
     public OrderLineResponse mapOrderLineToOrderLineResponse(OrderLine orderLine) {
         return new OrderLineResponse(
                 orderLine.getId(),
+                orderLine.getProductId(),
                 orderLine.getQuantity()
         );
     }
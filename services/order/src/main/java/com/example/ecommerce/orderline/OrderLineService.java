@@ -18,6 +18,17 @@ public class OrderLineService {
         return repository.save(order).getId();
     }
 
+    public List<Integer> saveOrderLines(List<OrderLineRequest> requests) {
+        var orderLines = requests
+                .stream()
+                .map(mapper::mapOrderLineRequestToOrderLine)
+                .toList();
+        return repository.saveAll(orderLines)
+                .stream()
+                .map(OrderLine::getId)
+                .toList();
+    }
+
     public List<OrderLineResponse> findAllByOrderId(Integer orderId) {
         return repository.findAllByOrderId(orderId)
                 .stream()
@@ -0,0 +1,66 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.kafka.OrderConfirmation;
+import com.example.ecommerce.kafka.OrderProducer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores the confirmation for later publishing. Must run inside the transaction that updates the
+     * order, so the event exists if and only if that update commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OrderConfirmation orderConfirmation) {
+        repository.save(toEvent(orderConfirmation));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<OrderConfirmation> orderConfirmations) {
+        repository.saveAll(
+                orderConfirmations
+                        .stream()
+                        .map(this::toEvent)
+                        .toList()
+        );
+    }
+
+    private OutboxEvent toEvent(OrderConfirmation orderConfirmation) {
+        return OutboxEvent.builder()
+                .topic(OrderProducer.ORDER_TOPIC)
+                .messageKey(messageKey(orderConfirmation))
+                .payload(toJson(orderConfirmation))
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Keyed by customer so that the confirmations of one customer keep their order across partitions.
+     * Also used by the reactive variant, which writes the outbox rows itself.
+     */
+    public static String messageKey(OrderConfirmation orderConfirmation) {
+        var customer = orderConfirmation.customer();
+        return customer != null && customer.id() != null ? customer.id() : orderConfirmation.orderReference();
+    }
+
+    private String toJson(OrderConfirmation orderConfirmation) {
+        try {
+            return objectMapper.writeValueAsString(orderConfirmation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize order confirmation " + orderConfirmation.orderReference(), e);
+        }
+    }
+}
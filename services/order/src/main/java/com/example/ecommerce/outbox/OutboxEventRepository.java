@@ -0,0 +1,39 @@
+package com.example.ecommerce.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // -2 is Hibernate's SKIP_LOCKED timeout, so concurrent relays never pick the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.lockedUntil is null or e.lockedUntil < :now order by e.id")
+    List<OutboxEvent> findNextBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query(value = """
+            insert into order_outbox_dead_letter (id, topic, message_key, payload, attempts, error, created_date, dead_lettered_date)
+            select id, topic, message_key, payload, attempts, :error, created_date, :now
+            from order_outbox
+            where id = :id""", nativeQuery = true)
+    void copyToDeadLetter(@Param("id") Long id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    // ids follow insertion order, so the oldest event is found through the primary key
+    @Query(value = "select created_date from order_outbox order by id limit 1", nativeQuery = true)
+    Optional<LocalDateTime> findOldestCreatedDate();
+
+    @Query(value = "select n_live_tup from pg_stat_user_tables where relname = 'order_outbox'", nativeQuery = true)
+    Optional<Long> estimatePending();
+}
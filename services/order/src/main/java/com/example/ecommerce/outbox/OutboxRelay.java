@@ -0,0 +1,193 @@
+package com.example.ecommerce.outbox;
+
+import com.example.ecommerce.kafka.OrderConfirmation;
+import com.example.ecommerce.kafka.OrderProducer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the order outbox to Kafka. Each pass claims one batch in a short transaction by leasing its rows
+ * past the send timeout, sends the batch without waiting between records and without holding a
+ * transaction, then waits for the acks and deletes only the acknowledged rows. Rows that were not
+ * acknowledged are retried once their lease has run out. Events whose payload cannot be read, or that
+ * failed {@code max-attempts} times, are moved to {@code order_outbox_dead_letter}. The next batch is
+ * claimed only after the previous one was acknowledged, which bounds the records in flight to the batch
+ * size. A pass claims at most {@code max-batches-per-poll} batches, so a filling outbox never keeps the
+ * scheduler busy for good.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    // a lease outlives the send timeout, so a row is only retried once its relay has given up on it
+    private static final Duration LEASE_MARGIN = Duration.ofSeconds(5);
+
+    private final OutboxEventRepository repository;
+    private final OrderProducer orderProducer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${application.config.outbox.batch-size:100}")
+    private int batchSize;
+    @Value("${application.config.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+    @Value("${application.config.outbox.max-attempts:50}")
+    private int maxAttempts;
+    @Value("${application.config.outbox.max-batches-per-poll:10}")
+    private int maxBatchesPerPoll;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter publishFailures;
+    private Counter deadLetters;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        publishFailures = Counter.builder("order.outbox.publish.failures")
+                .description("Outbox events that were not acknowledged by Kafka")
+                .register(meterRegistry);
+        deadLetters = Counter.builder("order.outbox.dead.letters")
+                .description("Outbox events moved to the dead letter table")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.outbox.poll-interval-ms:500}")
+    public void relay() {
+        var drained = false;
+        for (int i = 0; i < maxBatchesPerPoll && !drained; i++) {
+            var batch = transactionTemplate.execute(status -> claimNextBatch());
+            drained = batch == null || batch.isEmpty() || publish(batch);
+        }
+        updateLag();
+    }
+
+    private List<OutboxEvent> claimNextBatch() {
+        var now = LocalDateTime.now();
+        var batch = repository.findNextBatch(now, PageRequest.of(0, batchSize));
+        var lockedUntil = now.plus(sendTimeout).plus(LEASE_MARGIN);
+        batch.forEach(event -> {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLockedUntil(lockedUntil);
+        });
+        return batch;
+    }
+
+    /**
+     * @return true when there is nothing left to publish right now
+     */
+    private boolean publish(List<OutboxEvent> batch) {
+        var sends = new ArrayList<CompletableFuture<?>>(batch.size());
+        var unreadable = new HashMap<Long, String>();
+        for (OutboxEvent event : batch) {
+            sends.add(send(event, unreadable));
+        }
+
+        var published = new ArrayList<Long>(batch.size());
+        var deadLettered = new LinkedHashMap<Long, String>(unreadable);
+        var deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < batch.size(); i++) {
+            var event = batch.get(i);
+            if (unreadable.containsKey(event.getId())) {
+                continue;
+            }
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                published.add(event.getId());
+                Timer.builder("order.outbox.publish")
+                        .description("Time from writing an outbox event to its acknowledgement by Kafka")
+                        .register(meterRegistry)
+                        .record(Duration.between(event.getCreatedDate(), LocalDateTime.now()));
+            } catch (ExecutionException | TimeoutException e) {
+                publishFailures.increment();
+                if (event.getAttempts() >= maxAttempts) {
+                    deadLettered.put(event.getId(), "Not acknowledged after " + event.getAttempts() + " attempts: " + e);
+                } else {
+                    log.warn("Outbox event {} was not acknowledged on attempt {}, it will be retried", event.getId(), event.getAttempts(), e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.deleteAllByIdInBatch(published);
+            moveToDeadLetter(deadLettered);
+        });
+        return published.size() + deadLettered.size() < batch.size() || batch.size() < batchSize;
+    }
+
+    private void moveToDeadLetter(Map<Long, String> errors) {
+        if (errors.isEmpty()) {
+            return;
+        }
+        var now = LocalDateTime.now();
+        errors.forEach((id, error) -> {
+            log.error("Moving outbox event {} to the dead letter table:: {}", id, error);
+            repository.copyToDeadLetter(id, error, now);
+        });
+        repository.deleteAllByIdInBatch(errors.keySet());
+        deadLetters.increment(errors.size());
+    }
+
+    // a payload that cannot be read will never be published, so it is dead-lettered on the first attempt
+    private CompletableFuture<?> send(OutboxEvent event, Map<Long, String> unreadable) {
+        OrderConfirmation orderConfirmation;
+        try {
+            orderConfirmation = objectMapper.readValue(event.getPayload(), OrderConfirmation.class);
+        } catch (JsonProcessingException e) {
+            unreadable.put(event.getId(), "Unreadable payload: " + e.getOriginalMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return orderProducer.sendOrderConfirmation(event.getMessageKey(), orderConfirmation);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // the live tuple estimate of the statistics collector, a count(*) would scan the whole outbox
+    private void updateLag() {
+        pendingEvents.set(repository.estimatePending().orElse(0L));
+        lagMillis.set(repository.findOldestCreatedDate()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.ecommerce.payment;
 
+import com.example.ecommerce.http.DownstreamFeignConfiguration;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
 @FeignClient(
-        name = "product-service",
-        url = "${application.config.payment-url}"
+        name = "payment-service",
+        url = "${application.config.payment-url}",
+        configuration = DownstreamFeignConfiguration.class
 )
 public interface PaymentClient {
     @PostMapping
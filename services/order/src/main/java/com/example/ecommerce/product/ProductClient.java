@@ -20,13 +20,20 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @RequiredArgsConstructor
 public class ProductClient {
 
+    public static final String PURCHASE_KEY_HEADER = "Purchase-Key";
+
     @Value("${application.config.product-url}")
     private String productUrl;
     private final RestTemplate restTemplate;
 
-    public List<PurchaseResponse> purchaseProducts(List<PurchaseRequest> requestBody) {
+    /**
+     * The product service records the purchase under {@code purchaseKey}; stock is only ever released
+     * against that key.
+     */
+    public List<PurchaseResponse> purchaseProducts(String purchaseKey, List<PurchaseRequest> requestBody) {
         HttpHeaders headers = new HttpHeaders();
         headers.set(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+        headers.set(PURCHASE_KEY_HEADER, purchaseKey);
 
         HttpEntity<List<PurchaseRequest>> requestEntity = new HttpEntity<>(requestBody, headers);
         ParameterizedTypeReference<List<PurchaseResponse>> responseType = new ParameterizedTypeReference<>() {
@@ -0,0 +1,41 @@
+package com.example.ecommerce.product;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "product_release")
+public class ProductRelease {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_release_seq")
+    @SequenceGenerator(name = "product_release_seq", sequenceName = "product_release_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String purchaseKey;
+
+    // the product service applies a release once per key, so a release sent twice is harmless
+    @Column(nullable = false, length = 200)
+    private String releaseKey;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // pushed past the send timeout while a relay is sending the release, then to the next retry
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptDate;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.product;
+
+import com.example.ecommerce.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpMethod.PUT;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Sends the stock releases queued by {@link ProductReleaseQueue}. Uses a client without circuit breaker
+ * and bulkhead: a release must reach the product service even while purchases are being shed.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductReleaseClient {
+
+    @Value("${application.config.product-url}")
+    private String productUrl;
+    @Qualifier("productReleaseRestTemplate")
+    private final RestTemplate restTemplate;
+
+    /**
+     * Idempotent: the product service applies a release once per {@code releaseKey}, and never beyond
+     * what the purchase {@code purchaseKey} took.
+     */
+    public void releasePurchase(String purchaseKey, String releaseKey, List<PurchaseRequest> requestBody) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(CONTENT_TYPE, APPLICATION_JSON_VALUE);
+
+        HttpEntity<List<PurchaseRequest>> requestEntity = new HttpEntity<>(requestBody, headers);
+        ResponseEntity<Void> responseEntity = restTemplate.exchange(
+                productUrl + "/purchases/{purchaseKey}/releases/{releaseKey}",
+                PUT,
+                requestEntity,
+                Void.class,
+                purchaseKey,
+                releaseKey
+        );
+
+        if (responseEntity.getStatusCode().isError()) {
+            throw new BusinessException("An error occurred while releasing the purchased products: " + responseEntity.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ecommerce.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductReleaseQueue {
+
+    private final ProductReleaseRepository repository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores the release for {@link ProductReleaseRelay} in a transaction of its own, so it is kept even
+     * when the caller's transaction rolls back.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void enqueue(String purchaseKey, String releaseKey, List<PurchaseRequest> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        log.warn("Queueing release {} of {} purchased products", releaseKey, products.size());
+        var now = LocalDateTime.now();
+        repository.save(ProductRelease.builder()
+                .purchaseKey(purchaseKey)
+                .releaseKey(releaseKey)
+                .payload(toJson(products))
+                .nextAttemptDate(now)
+                .createdDate(now)
+                .build());
+    }
+
+    /**
+     * Whether a release is still waiting to be sent. Once sent it is gone from the queue, and the
+     * product service no longer replays what it released.
+     */
+    @Transactional(readOnly = true)
+    public boolean isQueued(String releaseKey) {
+        return repository.existsByReleaseKey(releaseKey);
+    }
+
+    private String toJson(List<PurchaseRequest> products) {
+        try {
+            return objectMapper.writeValueAsString(products);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize product release", e);
+        }
+    }
+}
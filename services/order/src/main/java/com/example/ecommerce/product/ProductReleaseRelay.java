@@ -0,0 +1,120 @@
+package com.example.ecommerce.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Sends the queued stock releases to the product service. A pass claims one batch in a short transaction
+ * by pushing its rows past the send timeout, sends the releases with no transaction open, then deletes
+ * those that were accepted and schedules the others for a retry with exponential backoff. Releases are
+ * retried until the product service takes them; only one it rejects as invalid is given up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductReleaseRelay {
+
+    private static final TypeReference<List<PurchaseRequest>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private final ProductReleaseRepository repository;
+    private final ProductReleaseClient releaseClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${application.config.product-release.batch-size:50}")
+    private int batchSize;
+    @Value("${application.config.product-release.send-timeout:30s}")
+    private Duration sendTimeout;
+    @Value("${application.config.product-release.initial-backoff:1s}")
+    private Duration initialBackoff;
+    @Value("${application.config.product-release.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter failures;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        failures = Counter.builder("order.product.release.failures")
+                .description("Stock release attempts that failed and will be retried")
+                .register(meterRegistry);
+        rejected = Counter.builder("order.product.release.rejected")
+                .description("Stock releases the product service rejected and that were given up")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.product-release.poll-interval-ms:1000}")
+    public void relay() {
+        var batch = transactionTemplate.execute(status -> claimDue());
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        var done = new ArrayList<Long>(batch.size());
+        var retries = new HashMap<Long, LocalDateTime>();
+        for (var release : batch) {
+            try {
+                releaseClient.releasePurchase(release.getPurchaseKey(), release.getReleaseKey(), readPayload(release));
+                done.add(release.getId());
+            } catch (HttpClientErrorException e) {
+                log.error("Product service rejected release {}, giving it up:: {}", release.getId(), release.getPayload(), e);
+                rejected.increment();
+                done.add(release.getId());
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Release {} failed on attempt {}, it will be retried", release.getId(), release.getAttempts(), e);
+                retries.put(release.getId(), LocalDateTime.now().plus(backoff(release.getAttempts())));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.deleteAllByIdInBatch(done);
+            retries.forEach(repository::reschedule);
+        });
+    }
+
+    private List<ProductRelease> claimDue() {
+        var now = LocalDateTime.now();
+        var batch = repository.findDue(now, PageRequest.of(0, batchSize));
+        var leasedUntil = now.plus(sendTimeout);
+        batch.forEach(release -> {
+            release.setAttempts(release.getAttempts() + 1);
+            release.setNextAttemptDate(leasedUntil);
+        });
+        return batch;
+    }
+
+    private Duration backoff(int attempts) {
+        var backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private List<PurchaseRequest> readPayload(ProductRelease release) {
+        try {
+            return objectMapper.readValue(release.getPayload(), PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable release payload " + release.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ecommerce.product;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductReleaseRepository extends JpaRepository<ProductRelease, Long> {
+
+    // -2 is Hibernate's SKIP_LOCKED timeout, so concurrent relays never pick the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select r from ProductRelease r where r.nextAttemptDate <= :now order by r.id")
+    List<ProductRelease> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    boolean existsByReleaseKey(String releaseKey);
+
+    @Modifying
+    @Query("update ProductRelease r set r.nextAttemptDate = :nextAttemptDate where r.id = :id")
+    void reschedule(@Param("id") Long id, @Param("nextAttemptDate") LocalDateTime nextAttemptDate);
+}
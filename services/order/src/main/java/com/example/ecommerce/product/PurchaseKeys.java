@@ -0,0 +1,26 @@
+package com.example.ecommerce.product;
+
+import java.util.UUID;
+
+/**
+ * Keys under which the product service records purchases and their releases. A release is applied at
+ * most once per key, so every compensation that may be sent again needs a key of its own.
+ */
+public final class PurchaseKeys {
+
+    private PurchaseKeys() {
+    }
+
+    public static String forOrder(Integer orderId) {
+        return "order-" + orderId;
+    }
+
+    public static String forBulk() {
+        return "bulk-" + UUID.randomUUID();
+    }
+
+    // releases the share of one order in a purchase made for several orders
+    public static String releaseOf(String purchaseKey, Integer orderId) {
+        return purchaseKey + ":order-" + orderId;
+    }
+}
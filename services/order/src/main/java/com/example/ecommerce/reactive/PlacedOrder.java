@@ -0,0 +1,12 @@
+package com.example.ecommerce.reactive;
+
+import java.time.LocalDateTime;
+
+/**
+ * The key of a stored order: its creation date selects the partition that holds it.
+ */
+public record PlacedOrder(
+        Integer id,
+        LocalDateTime createdDate
+) {
+}
@@ -0,0 +1,50 @@
+package com.example.ecommerce.reactive;
+
+import com.example.ecommerce.customer.CustomerResponse;
+import com.example.ecommerce.http.Downstream;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Looks customers up through an async cache, so concurrent lookups of the same customer share one call
+ * and no thread waits on a miss. Unknown customers complete empty and are not cached.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveCustomerClient {
+
+    private final WebClient webClient;
+    private final AsyncCache<String, CustomerResponse> cache;
+
+    public ReactiveCustomerClient(
+            ReactiveDownstreamClients clients,
+            @Value("${application.config.customer-cache.maximum-size:10000}") long maximumSize,
+            @Value("${application.config.customer-cache.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        this.webClient = clients.webClient(Downstream.CUSTOMER);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .buildAsync();
+    }
+
+    public Mono<CustomerResponse> findCustomerById(String customerId) {
+        return Mono.fromFuture(() -> cache.get(customerId, (id, executor) -> load(id).toFuture()));
+    }
+
+    private Mono<CustomerResponse> load(String customerId) {
+        return webClient.get()
+                .uri("/{customer-id}", customerId)
+                .retrieve()
+                .bodyToMono(CustomerResponse.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.ecommerce.reactive;
+
+import com.example.ecommerce.http.Downstream;
+import com.example.ecommerce.http.DownstreamHttpProperties;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link com.example.ecommerce.http.DownstreamHttpClients}: one Reactor Netty
+ * connection pool and timeout policy per downstream, taken from the same {@code application.http}
+ * settings. In direct routing the host is replaced by the service ID and resolved by the reactive load
+ * balancer, since the blocking {@code LoadBalancerClient} must not be called on an event loop.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveDownstreamClients implements DisposableBean {
+
+    private final Map<Downstream, ConnectionProvider> connectionProviders = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, WebClient> webClients = new EnumMap<>(Downstream.class);
+
+    public ReactiveDownstreamClients(
+            DownstreamHttpProperties properties,
+            WebClient.Builder webClientBuilder,
+            LoadBalancedExchangeFilterFunction loadBalancerFilter,
+            @Value("${application.config.customer-url}") String customerUrl,
+            @Value("${application.config.product-url}") String productUrl,
+            @Value("${application.config.payment-url}") String paymentUrl
+    ) {
+        var baseUrls = Map.of(
+                Downstream.CUSTOMER, customerUrl,
+                Downstream.PRODUCT, productUrl,
+                Downstream.PAYMENT, paymentUrl
+        );
+        var direct = properties.getRouting() == DownstreamHttpProperties.Routing.DIRECT;
+        for (Downstream downstream : Downstream.values()) {
+            var settings = properties.settings(downstream);
+            var connectionProvider = ConnectionProvider.builder(downstream.getServiceId())
+                    .maxConnections(settings.getMaxConnections())
+                    .pendingAcquireTimeout(settings.getConnectionRequestTimeout())
+                    .maxLifeTime(settings.getConnectionTimeToLive())
+                    .maxIdleTime(settings.getIdleTimeout())
+                    .metrics(true)
+                    .build();
+            var httpClient = HttpClient.create(connectionProvider)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+                    .responseTimeout(settings.getReadTimeout());
+
+            var builder = webClientBuilder.clone()
+                    .clientConnector(new ReactorClientHttpConnector(httpClient));
+            var baseUrl = baseUrls.get(downstream);
+            if (direct) {
+                baseUrl = UriComponentsBuilder.fromUriString(baseUrl)
+                        .host(downstream.getServiceId())
+                        .port(null)
+                        .toUriString();
+                builder.filter(loadBalancerFilter);
+            }
+            connectionProviders.put(downstream, connectionProvider);
+            webClients.put(downstream, builder.baseUrl(baseUrl).build());
+        }
+    }
+
+    public WebClient webClient(Downstream downstream) {
+        return webClients.get(downstream);
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.values().forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.ecommerce.reactive;
+
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.order.OrderRequest;
+import com.example.ecommerce.order.OrderStatusResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Order creation on the reactive stack. Only creation and the status read are served in this mode; the
+ * other order endpoints run on the servlet stack. Idempotent and asynchronous submissions are not
+ * supported here, so requests asking for them are rejected rather than silently processed once more.
+ */
+@RestController
+@RequestMapping("/api/v1/orders")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveOrderController {
+
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    private final ReactiveOrderService service;
+
+    @PostMapping
+    public Mono<ResponseEntity<Integer>> createOrder(
+            @RequestBody @Valid OrderRequest request,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey != null) {
+            return Mono.error(new BusinessException("Cannot create order:: Idempotency-Key is not supported in reactive mode"));
+        }
+        if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            return Mono.error(new BusinessException("Cannot create order:: Prefer: respond-async is not supported in reactive mode"));
+        }
+        return this.service.createOrder(request).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{order-id}/status")
+    public Mono<ResponseEntity<OrderStatusResponse>> findStatus(@PathVariable("order-id") Integer orderId) {
+        return this.service.findStatus(orderId).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.ecommerce.reactive;
+
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.kafka.OrderConfirmation;
+import com.example.ecommerce.kafka.OrderProducer;
+import com.example.ecommerce.order.OrderRequest;
+import com.example.ecommerce.order.OrderStatus;
+import com.example.ecommerce.order.OrderStatusResponse;
+import com.example.ecommerce.outbox.OrderOutbox;
+import com.example.ecommerce.product.PurchaseRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * R2DBC access to the tables mapped by JPA in the blocking variant. Ids are drawn straight from the
+ * sequences Hibernate uses with its pooled optimizer (increment 50). That optimizer only hands out the
+ * block of 50 values ending at each value it fetched itself, and a value fetched here is never fetched by
+ * Hibernate, so both variants can write to the same tables without colliding. The sequences must keep
+ * the increment of the entities' allocationSize; {@code OrderRepositoryTests} checks the interleaving.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveOrderRepository {
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectMapper objectMapper;
+
+    public Mono<PlacedOrder> placePendingOrder(OrderRequest request) {
+        var productIds = request.products().stream().map(PurchaseRequest::productId).toArray(Integer[]::new);
+        var quantities = request.products().stream().map(PurchaseRequest::quantity).toArray(Double[]::new);
+        // the exact value stored in the timestamp(6) column, which transitions match on
+        var createdDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return databaseClient.sql("""
+                        insert into customer_order (id, reference, total_amount, payment_method, customer_id, status, created_date)
+                        values (nextval('customer_order_seq'), :reference, :totalAmount, :paymentMethod, :customerId, :status, :createdDate)
+                        returning id""")
+                .bind("reference", Parameter.fromOrEmpty(request.reference(), String.class))
+                .bind("totalAmount", Parameter.fromOrEmpty(request.amount(), BigDecimal.class))
+                .bind("paymentMethod", request.paymentMethod().name())
+                .bind("customerId", request.customerId())
+                .bind("status", OrderStatus.PENDING.name())
+                .bind("createdDate", createdDate)
+                .map(row -> row.get("id", Integer.class))
+                .one()
+                .flatMap(orderId -> databaseClient.sql("""
+                                insert into customer_line (id, order_id, product_id, quantity)
+                                select nextval('customer_line_seq'), :orderId, line.product_id, line.quantity
+                                from unnest(cast(:productIds as int[]), cast(:quantities as float8[])) as line(product_id, quantity)""")
+                        .bind("orderId", orderId)
+                        .bind("productIds", productIds)
+                        .bind("quantities", quantities)
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(new PlacedOrder(orderId, createdDate)))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Like the blocking variant, matches the creation date so that only the order's own partition is
+     * scanned.
+     */
+    public Mono<Void> transition(PlacedOrder order, OrderStatus current, OrderStatus next) {
+        if (!current.canTransitionTo(next)) {
+            return Mono.error(new IllegalStateException(String.format("Order status cannot change from %s to %s", current, next)));
+        }
+        var orderId = order.id();
+        return databaseClient.sql("""
+                        update customer_order set status = :next, last_modified_date = :now
+                        where id = :id and created_date = :createdDate and status = :current""")
+                .bind("next", next.name())
+                .bind("now", LocalDateTime.now())
+                .bind("id", orderId)
+                .bind("createdDate", order.createdDate())
+                .bind("current", current.name())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new BusinessException(String.format("Cannot move order %d from %s to %s:: order is no longer %s", orderId, current, next, current)))
+                        : Mono.empty());
+    }
+
+    /**
+     * Confirms the order and stores its confirmation in the outbox in one transaction, exactly like the
+     * blocking variant; the outbox relay publishes it.
+     */
+    public Mono<Void> confirm(PlacedOrder order, OrderConfirmation orderConfirmation) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(orderConfirmation))
+                .onErrorMap(JsonProcessingException.class, e -> new IllegalArgumentException("Cannot serialize order confirmation " + orderConfirmation.orderReference(), e))
+                .flatMap(payload -> transition(order, OrderStatus.PAID, OrderStatus.CONFIRMED)
+                        .then(databaseClient.sql("""
+                                        insert into order_outbox (id, topic, message_key, payload, created_date)
+                                        values (nextval('order_outbox_seq'), :topic, :messageKey, :payload, :createdDate)""")
+                                .bind("topic", OrderProducer.ORDER_TOPIC)
+                                .bind("messageKey", Parameter.fromOrEmpty(OrderOutbox.messageKey(orderConfirmation), String.class))
+                                .bind("payload", payload)
+                                .bind("createdDate", LocalDateTime.now())
+                                .fetch()
+                                .rowsUpdated())
+                        .then())
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Queues a stock release for the blocking {@code ProductReleaseRelay}, which sends and retries it.
+     */
+    public Mono<Void> enqueueRelease(String purchaseKey, String releaseKey, List<PurchaseRequest> products) {
+        var now = LocalDateTime.now();
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(products))
+                .onErrorMap(JsonProcessingException.class, e -> new IllegalArgumentException("Cannot serialize product release", e))
+                .flatMap(payload -> databaseClient.sql("""
+                                insert into product_release (id, purchase_key, release_key, payload, attempts, next_attempt_date, created_date)
+                                values (nextval('product_release_seq'), :purchaseKey, :releaseKey, :payload, 0, :now, :now)""")
+                        .bind("purchaseKey", purchaseKey)
+                        .bind("releaseKey", releaseKey)
+                        .bind("payload", payload)
+                        .bind("now", now)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+
+    /**
+     * Falls back to the archive when no partition holds the order anymore.
+     */
+    public Mono<OrderStatusResponse> findStatus(Integer orderId) {
+        return databaseClient.sql("""
+                        select id, reference, status, last_modified_date from customer_order where id = :id
+                        union all
+                        select id, reference, status, last_modified_date from customer_order_archive where id = :id
+                        limit 1""")
+                .bind("id", orderId)
+                .map(row -> new OrderStatusResponse(
+                        row.get("id", Integer.class),
+                        row.get("reference", String.class),
+                        OrderStatus.valueOf(row.get("status", String.class)),
+                        row.get("last_modified_date", LocalDateTime.class)
+                ))
+                .one();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ecommerce.reactive;
+
+import com.example.ecommerce.customer.CustomerResponse;
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.kafka.OrderConfirmation;
+import com.example.ecommerce.order.OrderRequest;
+import com.example.ecommerce.order.OrderStatus;
+import com.example.ecommerce.order.OrderStatusChanged;
+import com.example.ecommerce.order.OrderStatusResponse;
+import com.example.ecommerce.order.PreparedOrder;
+import com.example.ecommerce.payment.PaymentRequest;
+import com.example.ecommerce.product.PurchaseKeys;
+import com.example.ecommerce.product.PurchaseRequest;
+import com.example.ecommerce.product.PurchaseResponse;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.ecommerce.order.OrderStatus.FAILED;
+import static com.example.ecommerce.order.OrderStatus.PAID;
+import static com.example.ecommerce.order.OrderStatus.PENDING;
+import static com.example.ecommerce.order.OrderStatus.STOCK_RESERVED;
+
+/**
+ * Non-blocking implementation of the order flow of {@link com.example.ecommerce.order.OrderService}: the
+ * same states, compensations and outbox, without holding a thread while waiting on the database or a
+ * downstream service.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveOrderService {
+
+    private final ReactiveOrderRepository repository;
+    private final ReactiveCustomerClient customerClient;
+    private final ReactiveProductClient productClient;
+    private final ReactivePaymentClient paymentClient;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public Mono<Integer> createOrder(OrderRequest request) {
+        return repository.placePendingOrder(request)
+                .flatMap(order -> prepare(order, request)
+                        .onErrorResume(e -> transition(order, PENDING, FAILED).then(Mono.error(e)))
+                        .flatMap(prepared -> transition(order, PENDING, STOCK_RESERVED)
+                                .then(pay(order, request, prepared))
+                                .then(transition(order, STOCK_RESERVED, PAID))
+                                .then(repository.confirm(order, new OrderConfirmation(
+                                        request.reference(),
+                                        request.amount(),
+                                        request.paymentMethod(),
+                                        prepared.customer(),
+                                        prepared.purchasedProducts()
+                                )))
+                                .doOnSuccess(done -> eventPublisher.publishEvent(new OrderStatusChanged(order.id(), OrderStatus.CONFIRMED))))
+                        .thenReturn(order.id()));
+    }
+
+    public Mono<OrderStatusResponse> findStatus(Integer orderId) {
+        return repository.findStatus(orderId)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(String.format("No order found with the provided ID: %d", orderId))));
+    }
+
+    /**
+     * Looks the customer up and purchases the products at the same time. Neither call is cancelled when
+     * the other fails, so a purchase that went through is always seen and released again.
+     */
+    private Mono<PreparedOrder> prepare(PlacedOrder order, OrderRequest request) {
+        var purchased = new AtomicReference<List<PurchaseResponse>>();
+        var customer = customerClient.findCustomerById(request.customerId())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+        var purchase = productClient.purchaseProducts(PurchaseKeys.forOrder(order.id()), request.products())
+                .doOnNext(purchased::set);
+        return Mono.zipDelayError(customer, purchase)
+                .flatMap(prepared -> prepared.getT1()
+                        .map(found -> Mono.just(new PreparedOrder(found, prepared.getT2())))
+                        .orElseGet(() -> Mono.error(new BusinessException("Cannot create order:: No customer exists with the provided ID"))))
+                .onErrorResume(e -> purchased.get() == null
+                        ? Mono.error(e)
+                        : releaseQuietly(order, purchased.get()).then(Mono.error(e)));
+    }
+
+    private Mono<Void> pay(PlacedOrder order, OrderRequest request, PreparedOrder prepared) {
+        return paymentClient.requestOrderPayment(new PaymentRequest(
+                        request.amount(),
+                        request.paymentMethod(),
+                        order.id(),
+                        request.reference(),
+                        prepared.customer()
+                ))
+                .onErrorResume(e -> transition(order, STOCK_RESERVED, FAILED)
+                        .then(releaseQuietly(order, prepared.purchasedProducts()))
+                        .then(Mono.error(e)))
+                .then();
+    }
+
+    private Mono<Void> transition(PlacedOrder order, OrderStatus current, OrderStatus next) {
+        return repository.transition(order, current, next)
+                .doOnSuccess(done -> eventPublisher.publishEvent(new OrderStatusChanged(order.id(), next)));
+    }
+
+    private Mono<Void> releaseQuietly(PlacedOrder order, List<PurchaseResponse> purchasedProducts) {
+        log.warn("Queueing the release of {} purchased products", purchasedProducts.size());
+        var products = purchasedProducts
+                .stream()
+                .map(product -> new PurchaseRequest(product.productId(), product.quantity()))
+                .toList();
+        var purchaseKey = PurchaseKeys.forOrder(order.id());
+        return repository.enqueueRelease(purchaseKey, purchaseKey, products)
+                .onErrorResume(e -> {
+                    log.error("Failed to queue the stock release of a failed order", e);
+                    return Mono.empty();
+                });
+    }
+}
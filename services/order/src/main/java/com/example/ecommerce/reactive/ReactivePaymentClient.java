@@ -0,0 +1,26 @@
+package com.example.ecommerce.reactive;
+
+import com.example.ecommerce.http.Downstream;
+import com.example.ecommerce.payment.PaymentRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Component
+@Profile("reactive")
+public class ReactivePaymentClient {
+
+    private final WebClient webClient;
+
+    public ReactivePaymentClient(ReactiveDownstreamClients clients) {
+        this.webClient = clients.webClient(Downstream.PAYMENT);
+    }
+
+    public Mono<Integer> requestOrderPayment(PaymentRequest request) {
+        return webClient.post()
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(Integer.class);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ecommerce.reactive;
+
+import com.example.ecommerce.http.Downstream;
+import com.example.ecommerce.product.ProductClient;
+import com.example.ecommerce.product.PurchaseRequest;
+import com.example.ecommerce.product.PurchaseResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+@Profile("reactive")
+public class ReactiveProductClient {
+
+    private static final ParameterizedTypeReference<List<PurchaseResponse>> PURCHASE_RESPONSES = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+
+    public ReactiveProductClient(ReactiveDownstreamClients clients) {
+        this.webClient = clients.webClient(Downstream.PRODUCT);
+    }
+
+    public Mono<List<PurchaseResponse>> purchaseProducts(String purchaseKey, List<PurchaseRequest> requestBody) {
+        return webClient.post()
+                .uri("/purchase")
+                .header(ProductClient.PURCHASE_KEY_HEADER, purchaseKey)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(PURCHASE_RESPONSES);
+    }
+}
@@ -0,0 +1,141 @@
+-- Range-partitions customer_order by created_date into monthly partitions named customer_order_YYYY_MM.
+-- Rows outside every monthly partition land in customer_order_default.
+
+ALTER SEQUENCE IF EXISTS order_seq RENAME TO customer_order_seq;
+
+-- a foreign key to a partitioned table would have to include created_date, so order lines lose theirs
+DO
+$$
+    DECLARE
+        constraint_row record;
+    BEGIN
+        FOR constraint_row IN
+            SELECT conname, conrelid::regclass AS table_name
+            FROM pg_constraint
+            WHERE contype = 'f'
+              AND confrelid = 'customer_order'::regclass
+            LOOP
+                EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', constraint_row.table_name, constraint_row.conname);
+            END LOOP;
+    END
+$$;
+
+ALTER TABLE customer_order RENAME TO customer_order_unpartitioned;
+ALTER INDEX idx_customer_order_created_date_id RENAME TO idx_customer_order_unpartitioned_created_date_id;
+ALTER INDEX idx_customer_order_customer_id_created_date_id RENAME TO idx_customer_order_unpartitioned_customer_id_created_date_id;
+
+CREATE TABLE customer_order
+(
+    id                 integer      NOT NULL,
+    reference          varchar(255) NOT NULL,
+    total_amount       numeric(38, 2),
+    payment_method     varchar(255),
+    customer_id        varchar(255),
+    status             varchar(255),
+    created_date       timestamp(6) NOT NULL,
+    last_modified_date timestamp(6),
+    PRIMARY KEY (id, created_date)
+) PARTITION BY RANGE (created_date);
+
+CREATE INDEX idx_customer_order_created_date_id ON customer_order (created_date DESC, id DESC);
+CREATE INDEX idx_customer_order_customer_id_created_date_id ON customer_order (customer_id, created_date DESC, id DESC);
+CREATE TABLE customer_order_default PARTITION OF customer_order DEFAULT;
+
+CREATE INDEX idx_customer_line_order_id ON customer_line (order_id);
+
+-- a unique index on a partitioned table must include created_date, so references are claimed here instead
+CREATE TABLE customer_order_reference
+(
+    reference varchar(255) NOT NULL PRIMARY KEY,
+    order_id  integer      NOT NULL
+);
+
+CREATE FUNCTION claim_customer_order_reference() RETURNS trigger AS
+$$
+BEGIN
+    INSERT INTO customer_order_reference (reference, order_id) VALUES (NEW.reference, NEW.id);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_order_claim_reference
+    BEFORE INSERT
+    ON customer_order
+    FOR EACH ROW
+EXECUTE FUNCTION claim_customer_order_reference();
+
+CREATE FUNCTION create_customer_order_partition(month_start date) RETURNS text AS
+$$
+DECLARE
+    partition_name text := format('customer_order_%s', to_char(month_start, 'YYYY_MM'));
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF customer_order FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, month_start + interval '1 month');
+    RETURN partition_name;
+END
+$$ LANGUAGE plpgsql;
+
+DO
+$$
+    DECLARE
+        month_start date;
+        last_month  date := date_trunc('month', now() + interval '3 months')::date;
+    BEGIN
+        SELECT date_trunc('month', coalesce(min(created_date), now()))::date
+        INTO month_start
+        FROM customer_order_unpartitioned;
+        WHILE month_start <= last_month
+            LOOP
+                PERFORM create_customer_order_partition(month_start);
+                month_start := (month_start + interval '1 month')::date;
+            END LOOP;
+    END
+$$;
+
+INSERT INTO customer_order (id, reference, total_amount, payment_method, customer_id, status, created_date, last_modified_date)
+SELECT id, reference, total_amount, payment_method, customer_id, status, created_date, last_modified_date
+FROM customer_order_unpartitioned;
+
+DROP TABLE customer_order_unpartitioned;
+
+-- cold storage for archived partitions: one row per order with its lines folded into jsonb
+CREATE TABLE customer_order_archive
+(
+    id                 integer      NOT NULL PRIMARY KEY,
+    reference          varchar(255) NOT NULL,
+    total_amount       numeric(38, 2),
+    payment_method     varchar(255),
+    customer_id        varchar(255),
+    status             varchar(255),
+    created_date       timestamp(6) NOT NULL,
+    last_modified_date timestamp(6),
+    order_lines        jsonb        NOT NULL
+);
+
+CREATE INDEX idx_customer_order_archive_customer_id_created_date ON customer_order_archive (customer_id, created_date DESC);
+
+-- Copies one monthly partition with its lines into the archive, then detaches and drops it, all in the
+-- caller's transaction. The exclusive lock on customer_order is only taken by the detach at the end.
+CREATE FUNCTION archive_customer_order_partition(partition_name text) RETURNS integer AS
+$$
+DECLARE
+    archived integer;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('archive_customer_order_partition'))
+        OR to_regclass(partition_name) IS NULL THEN
+        RETURN 0;
+    END IF;
+    EXECUTE format(
+            'INSERT INTO customer_order_archive (id, reference, total_amount, payment_method, customer_id, status, created_date, last_modified_date, order_lines)
+             SELECT o.id, o.reference, o.total_amount, o.payment_method, o.customer_id, o.status, o.created_date, o.last_modified_date,
+                    coalesce((SELECT jsonb_agg(jsonb_build_object(''id'', l.id, ''productId'', l.product_id, ''quantity'', l.quantity) ORDER BY l.id)
+                              FROM customer_line l
+                              WHERE l.order_id = o.id), ''[]''::jsonb)
+             FROM %I o', partition_name);
+    GET DIAGNOSTICS archived = ROW_COUNT;
+    EXECUTE format('DELETE FROM customer_line l USING %I o WHERE l.order_id = o.id', partition_name);
+    EXECUTE format('ALTER TABLE customer_order DETACH PARTITION %I', partition_name);
+    EXECUTE format('DROP TABLE %I', partition_name);
+    RETURN archived;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,2 @@
+-- Keys claimed before this migration have no fingerprint and are matched by key alone until they expire.
+ALTER TABLE order_idempotency_key ADD COLUMN IF NOT EXISTS request_fingerprint varchar(64);
@@ -0,0 +1,16 @@
+-- The relay leases outbox rows instead of holding their locks while it waits for Kafka, and counts the
+-- attempts so that events which can never be published are moved out of the way.
+ALTER TABLE order_outbox ADD COLUMN IF NOT EXISTS attempts integer NOT NULL DEFAULT 0;
+ALTER TABLE order_outbox ADD COLUMN IF NOT EXISTS locked_until timestamp(6);
+
+CREATE TABLE IF NOT EXISTS order_outbox_dead_letter
+(
+    id                 bigint       NOT NULL PRIMARY KEY,
+    topic              varchar(255) NOT NULL,
+    message_key        varchar(255),
+    payload            text         NOT NULL,
+    attempts           integer      NOT NULL,
+    error              text,
+    created_date       timestamp(6) NOT NULL,
+    dead_lettered_date timestamp(6) NOT NULL
+);
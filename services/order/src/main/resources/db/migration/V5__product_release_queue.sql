@@ -0,0 +1,16 @@
+-- Compensating stock releases are stored first and sent to the product service by a relay, so a release
+-- that fails or finds the product service unavailable is retried instead of lost.
+CREATE SEQUENCE IF NOT EXISTS product_release_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS product_release
+(
+    id                bigint       NOT NULL PRIMARY KEY,
+    purchase_key      varchar(100) NOT NULL,
+    release_key       varchar(200) NOT NULL,
+    payload           text         NOT NULL,
+    attempts          integer      NOT NULL DEFAULT 0,
+    next_attempt_date timestamp(6) NOT NULL,
+    created_date      timestamp(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_release_next_attempt_date ON product_release (next_attempt_date);
@@ -0,0 +1,3 @@
+-- The key the order's products were purchased under when it is not order-{id}: the orders of a bulk
+-- request share one aggregated purchase. Recovery replays the purchase under this key.
+ALTER TABLE customer_order ADD COLUMN IF NOT EXISTS purchase_key varchar(100);
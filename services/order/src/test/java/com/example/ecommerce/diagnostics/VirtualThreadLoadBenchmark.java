@@ -0,0 +1,174 @@
+package com.example.ecommerce.diagnostics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the same closed-loop load against two order service instances, one started normally and one
+ * started with the {@code virtual-threads} profile, and compares throughput, latency and memory used per
+ * concurrent request. Memory and thread counts are read from the actuator metrics endpoint of each
+ * instance before and during the load. Needs a running stack, e.g.
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadBenchmark \
+ *     -Dbenchmark.platform-url=http://localhost:8070 \
+ *     -Dbenchmark.virtual-url=http://localhost:8071 \
+ *     -Dbenchmark.path=/api/v1/orders?size=20 \
+ *     -Dbenchmark.concurrency=1000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.platform-url", matches = ".+")
+public class VirtualThreadLoadBenchmark {
+
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        var path = System.getProperty("benchmark.path", "/api/v1/orders?size=20");
+        var concurrency = Integer.getInteger("benchmark.concurrency", 1000);
+
+        var platform = run("platform", System.getProperty("benchmark.platform-url"), path, concurrency);
+        var virtual = run("virtual", System.getProperty("benchmark.virtual-url"), path, concurrency);
+
+        report(platform);
+        report(virtual);
+        System.out.printf("virtual/platform: throughput x%.2f, memory per request x%.2f%n",
+                virtual.throughput() / platform.throughput(),
+                virtual.memoryPerRequest() / platform.memoryPerRequest());
+    }
+
+    private Result run(String mode, String baseUrl, String path, int concurrency) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        load(request, concurrency, WARMUP, false);
+        var idleMemory = metric(baseUrl, "jvm.memory.used");
+        var idleThreads = metric(baseUrl, "jvm.threads.live");
+        var measurement = load(request, concurrency, MEASUREMENT, true);
+        var memoryPerRequest = (measurement.peakMemory() - idleMemory) / concurrency;
+        return new Result(
+                mode,
+                measurement.completed() / (double) MEASUREMENT.toSeconds(),
+                measurement.errors(),
+                measurement.latencies(),
+                memoryPerRequest,
+                measurement.peakThreads() - idleThreads
+        );
+    }
+
+    private Measurement load(HttpRequest request, int concurrency, Duration duration, boolean record) throws Exception {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var completed = new AtomicInteger();
+        var errors = new AtomicInteger();
+        var latencies = new ArrayList<List<Double>>();
+        var peakMemory = new double[1];
+        var peakThreads = new double[1];
+        var baseUrl = request.uri().resolve("/").toString().replaceAll("/$", "");
+        try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < concurrency; i++) {
+                var clientLatencies = new ArrayList<Double>();
+                latencies.add(clientLatencies);
+                futures.add(clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        var start = System.nanoTime();
+                        try {
+                            var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        completed.incrementAndGet();
+                        if (record) {
+                            clientLatencies.add((System.nanoTime() - start) / 1_000_000.0);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            if (record) {
+                // sample the server while every client is in flight
+                while (System.nanoTime() < deadline - Duration.ofSeconds(1).toNanos()) {
+                    peakMemory[0] = Math.max(peakMemory[0], metric(baseUrl, "jvm.memory.used"));
+                    peakThreads[0] = Math.max(peakThreads[0], metric(baseUrl, "jvm.threads.live"));
+                    Thread.sleep(1_000);
+                }
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        }
+        var sorted = latencies.stream()
+                .flatMap(List::stream)
+                .mapToDouble(Double::doubleValue)
+                .sorted()
+                .toArray();
+        return new Measurement(completed.get(), errors.get(), sorted, peakMemory[0], peakThreads[0]);
+    }
+
+    private double metric(String baseUrl, String name) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name)).GET().build();
+        var body = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        for (var measurement : objectMapper.readTree(body).path("measurements")) {
+            if ("VALUE".equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asDouble();
+            }
+        }
+        throw new IllegalStateException("Metric " + name + " not available at " + baseUrl);
+    }
+
+    private void report(Result result) {
+        System.out.printf("%-8s %.0f req/s, %d errors, p50 %.2f ms, p99 %.2f ms, %.1f KiB per concurrent request, +%.0f threads%n",
+                result.mode(),
+                result.throughput(),
+                result.errors(),
+                percentile(result.latencies(), 50),
+                percentile(result.latencies(), 99),
+                result.memoryPerRequest() / 1024,
+                result.extraThreads());
+    }
+
+    private double percentile(double[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        var index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private record Measurement(int completed, int errors, double[] latencies, double peakMemory, double peakThreads) {
+    }
+
+    private record Result(
+            String mode,
+            double throughput,
+            int errors,
+            double[] latencies,
+            double memoryPerRequest,
+            double extraThreads
+    ) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.ecommerce.http;
+
+import com.example.ecommerce.exception.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class CircuitBreakerTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownstreamHttpProperties.CircuitBreakerSettings settings;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        settings = new DownstreamHttpProperties.CircuitBreakerSettings();
+        settings.setWindowSize(10);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(50);
+        settings.setHalfOpenCalls(2);
+    }
+
+    @Test
+    public void circuitShouldOpenWhenFailureRateReachesThreshold() {
+        // Given
+        var circuitBreaker = new CircuitBreaker(Downstream.PRODUCT, settings, meterRegistry);
+
+        // When
+        call(circuitBreaker, true);
+        call(circuitBreaker, true);
+        call(circuitBreaker, false);
+        call(circuitBreaker, false);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertThrows(CircuitOpenException.class, circuitBreaker::acquire);
+        Assertions.assertEquals(1, meterRegistry.get("http.client.circuit.rejected").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("http.client.circuit.transitions").tag("to", "open").counter().count());
+    }
+
+    @Test
+    public void circuitShouldStayClosedBelowMinimumCalls() {
+        // Given
+        var circuitBreaker = new CircuitBreaker(Downstream.PRODUCT, settings, meterRegistry);
+
+        // When
+        call(circuitBreaker, true);
+        call(circuitBreaker, true);
+        call(circuitBreaker, true);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void circuitShouldCloseAfterSuccessfulTrialCalls() {
+        // Given
+        settings.setOpenDuration(Duration.ZERO);
+        var circuitBreaker = new CircuitBreaker(Downstream.PAYMENT, settings, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            call(circuitBreaker, true);
+        }
+
+        // When
+        call(circuitBreaker, false);
+        call(circuitBreaker, false);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void circuitShouldReopenWhenTrialCallFails() {
+        // Given
+        settings.setOpenDuration(Duration.ZERO);
+        var circuitBreaker = new CircuitBreaker(Downstream.PAYMENT, settings, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            call(circuitBreaker, true);
+        }
+
+        // When
+        call(circuitBreaker, true);
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void slowCallShouldCountAsFailure() {
+        // Given
+        settings.setSlowCallDuration(Duration.ofMillis(100));
+        var circuitBreaker = new CircuitBreaker(Downstream.CUSTOMER, settings, meterRegistry);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.acquire();
+            circuitBreaker.onSuccess(Duration.ofMillis(150).toNanos());
+        }
+
+        // Then
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private static void call(CircuitBreaker circuitBreaker, boolean fails) {
+        circuitBreaker.acquire();
+        if (fails) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess(0);
+        }
+    }
+}
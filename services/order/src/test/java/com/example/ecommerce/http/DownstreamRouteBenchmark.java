@@ -0,0 +1,77 @@
+package com.example.ecommerce.http;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Compares the latency of the same downstream request sent through the gateway and straight to a
+ * service instance. Needs a running stack, so it only runs when both base URLs are given, e.g.
+ * <pre>
+ * mvn test -Dtest=DownstreamRouteBenchmark \
+ *     -Dbenchmark.gateway-url=http://localhost:8222 \
+ *     -Dbenchmark.direct-url=http://localhost:8050 \
+ *     -Dbenchmark.path=/api/v1/products/1
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark.gateway-url", matches = ".+")
+public class DownstreamRouteBenchmark {
+
+    private static final int WARMUP_REQUESTS = 200;
+    private static final int MEASURED_REQUESTS = 2_000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @Test
+    void compareGatewayAndDirectHopLatency() throws Exception {
+        var path = System.getProperty("benchmark.path", "/api/v1/products/1");
+        var gateway = URI.create(System.getProperty("benchmark.gateway-url") + path);
+        var direct = URI.create(System.getProperty("benchmark.direct-url") + path);
+
+        var viaGateway = measure(gateway);
+        var viaDirect = measure(direct);
+
+        report("gateway", viaGateway);
+        report("direct", viaDirect);
+        System.out.printf("gateway hop overhead: p50 %.2f ms, p99 %.2f ms%n",
+                percentile(viaGateway, 50) - percentile(viaDirect, 50),
+                percentile(viaGateway, 99) - percentile(viaDirect, 99));
+    }
+
+    private double[] measure(URI uri) throws Exception {
+        var request = HttpRequest.newBuilder(uri).GET().build();
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+        var latencies = new double[MEASURED_REQUESTS];
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            var start = System.nanoTime();
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private void report(String route, double[] latencies) {
+        System.out.printf("%-8s p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                route,
+                percentile(latencies, 50),
+                percentile(latencies, 95),
+                percentile(latencies, 99),
+                latencies[latencies.length - 1]);
+    }
+
+    private double percentile(double[] sorted, int percentile) {
+        var index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.ecommerce.idempotency;
+
+import com.example.ecommerce.exception.IdempotencyKeyMismatchException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false"
+})
+public class IdempotencyStoreTests {
+
+    private static final Duration RETENTION = Duration.ofMinutes(10);
+
+    @Autowired
+    private IdempotencyKeyRepository repository;
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = store(RETENTION, RETENTION);
+    }
+
+    @Test
+    void claimedKeyShouldBeReplayedWithTheSameOrder() {
+        // Given
+        store.claim("key-1", 42, List.of("ORD-1"));
+
+        // When
+        var orderId = store.findOrderId("key-1", List.of("ORD-1"));
+
+        // Then
+        Assertions.assertEquals(Optional.of(42), orderId);
+        Assertions.assertEquals(Optional.empty(), store.findOrderId("key-2", List.of("ORD-1")));
+    }
+
+    @Test
+    void claimingAKeyTwiceShouldFail() {
+        // Given
+        store.claim("key-1", 42, List.of("ORD-1"));
+
+        // When / Then
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            store.claim("key-1", 43, List.of("ORD-1"));
+            repository.flush();
+        });
+    }
+
+    @Test
+    void keyReusedForADifferentRequestShouldFail() {
+        // Given
+        store.claim("key-1", 42, List.of("ORD-1"));
+        store.remember("key-2", 43, List.of("ORD-2"));
+
+        // When / Then
+        Assertions.assertThrows(IdempotencyKeyMismatchException.class, () -> store.findOrderId("key-1", List.of("ORD-3")));
+        Assertions.assertThrows(IdempotencyKeyMismatchException.class, () -> store.findOrderId("key-2", List.of("ORD-3")));
+    }
+
+    @Test
+    void purgedKeyShouldNoLongerBeFound() {
+        // Given
+        repository.insert("key-1", 42, null, LocalDateTime.now().minus(RETENTION).minusMinutes(1));
+
+        // When
+        store.purgeExpiredKeys();
+
+        // Then
+        Assertions.assertEquals(Optional.empty(), store.findOrderId("key-1", List.of("ORD-1")));
+    }
+
+    @Test
+    void keyReadShortlyBeforeItsPurgeShouldNotBeAnsweredFromMemoryAfterwards() throws InterruptedException {
+        // Given
+        repository.insert("key-1", 42, null, LocalDateTime.now().minus(RETENTION).plusMillis(200));
+        Assertions.assertEquals(Optional.of(42), store.findOrderId("key-1", List.of("ORD-1")));
+
+        // When
+        Thread.sleep(500);
+        store.purgeExpiredKeys();
+
+        // Then
+        Assertions.assertEquals(Optional.empty(), store.findOrderId("key-1", List.of("ORD-1")));
+    }
+
+    @Test
+    void cacheOutlivingTheRetentionShouldBeRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> store(Duration.ofHours(1), RETENTION));
+    }
+
+    private IdempotencyStore store(Duration cacheExpireAfterWrite, Duration retention) {
+        return new IdempotencyStore(
+                repository,
+                new ObjectMapper(),
+                new SimpleMeterRegistry(),
+                100,
+                cacheExpireAfterWrite,
+                retention
+        );
+    }
+}
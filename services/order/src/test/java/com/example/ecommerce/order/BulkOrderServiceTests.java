@@ -0,0 +1,270 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.customer.CustomerCache;
+import com.example.ecommerce.customer.CustomerResponse;
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.payment.PaymentClient;
+import com.example.ecommerce.product.ProductClient;
+import com.example.ecommerce.product.ProductReleaseQueue;
+import com.example.ecommerce.product.PurchaseKeys;
+import com.example.ecommerce.product.PurchaseRequest;
+import com.example.ecommerce.product.PurchaseResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ecommerce.order.OrderStatus.CONFIRMED;
+import static com.example.ecommerce.order.OrderStatus.FAILED;
+import static com.example.ecommerce.order.OrderStatus.PAID;
+import static com.example.ecommerce.order.OrderStatus.PENDING;
+import static com.example.ecommerce.order.OrderStatus.STOCK_RESERVED;
+
+public class BulkOrderServiceTests {
+
+    private OrderRepository repository;
+    private OrderStateMachine stateMachine;
+    private CustomerCache customerCache;
+    private ProductClient productClient;
+    private ProductReleaseQueue releaseQueue;
+    private PaymentClient paymentClient;
+    private ThreadPoolTaskExecutor executor;
+    private ThreadPoolTaskExecutor paymentExecutor;
+    private BulkOrderService service;
+    private final AtomicInteger nextOrderId = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(OrderRepository.class);
+        stateMachine = Mockito.mock(OrderStateMachine.class);
+        customerCache = Mockito.mock(CustomerCache.class);
+        productClient = Mockito.mock(ProductClient.class);
+        releaseQueue = Mockito.mock(ProductReleaseQueue.class);
+        paymentClient = Mockito.mock(PaymentClient.class);
+        executor = executor();
+        paymentExecutor = executor();
+        service = new BulkOrderService(
+                repository,
+                stateMachine,
+                customerCache,
+                productClient,
+                releaseQueue,
+                paymentClient,
+                executor,
+                paymentExecutor
+        );
+
+        Mockito.when(repository.findExistingReferences(Mockito.anyCollection())).thenReturn(List.of());
+        Mockito.when(customerCache.findCustomerById(Mockito.anyString()))
+                .thenAnswer(invocation -> Optional.of(customer(invocation.getArgument(0))));
+        Mockito.when(stateMachine.placePendingOrders(Mockito.anyList(), Mockito.anyString())).thenAnswer(invocation -> {
+            List<OrderRequest> requests = invocation.getArgument(0);
+            var orders = new ArrayList<Order>();
+            requests.forEach(request -> orders.add(Order.builder()
+                    .id(nextOrderId.incrementAndGet())
+                    .reference(request.reference())
+                    .status(PENDING)
+                    .purchaseKey(invocation.getArgument(1))
+                    .createdDate(LocalDateTime.now())
+                    .build()));
+            return orders;
+        });
+        Mockito.when(productClient.purchaseProducts(Mockito.anyString(), Mockito.anyList())).thenAnswer(invocation -> {
+            List<PurchaseRequest> products = invocation.getArgument(1);
+            return products.stream()
+                    .map(product -> new PurchaseResponse(product.productId(), "Product", "Description", BigDecimal.TEN, product.quantity()))
+                    .toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        paymentExecutor.shutdown();
+    }
+
+    @Test
+    void duplicateReferencesShouldFailWithinTheBatchAndAgainstStoredOrders() {
+        // Given
+        Mockito.when(repository.findExistingReferences(Mockito.anyCollection())).thenReturn(List.of("ORD-STORED"));
+
+        // When
+        var response = service.createOrders(List.of(
+                request("ORD-1", "customer-1", 1, 1),
+                request("ORD-1", "customer-1", 1, 1),
+                request("ORD-STORED", "customer-1", 1, 1)
+        ));
+
+        // Then
+        Assertions.assertEquals(1, response.confirmed());
+        Assertions.assertEquals(2, response.failed());
+        Assertions.assertEquals(CONFIRMED, response.results().get(0).status());
+        Assertions.assertEquals("An order with this reference already exists", response.results().get(1).error());
+        Assertions.assertEquals("An order with this reference already exists", response.results().get(2).error());
+        Assertions.assertNull(response.results().get(2).orderId());
+    }
+
+    @Test
+    void failedCustomerLookupShouldOnlyFailTheOrdersOfThatCustomer() {
+        // Given
+        Mockito.when(customerCache.findCustomerById("customer-down")).thenThrow(new BusinessException("Customer service is down"));
+
+        // When
+        var response = service.createOrders(List.of(
+                request("ORD-1", "customer-down", 1, 1),
+                request("ORD-2", "customer-1", 1, 1)
+        ));
+
+        // Then
+        Assertions.assertEquals("Customer could not be looked up, retry later", response.results().get(0).error());
+        Assertions.assertNull(response.results().get(0).orderId());
+        Assertions.assertEquals(CONFIRMED, response.results().get(1).status());
+    }
+
+    @Test
+    void rejectedAggregatedPurchaseShouldFailEveryOrder() {
+        // Given
+        Mockito.when(productClient.purchaseProducts(Mockito.anyString(), Mockito.anyList()))
+                .thenThrow(new BusinessException("Insufficient stock"));
+
+        // When
+        var response = service.createOrders(List.of(
+                request("ORD-1", "customer-1", 1, 1),
+                request("ORD-2", "customer-2", 2, 1)
+        ));
+
+        // Then
+        Assertions.assertEquals(0, response.confirmed());
+        Assertions.assertTrue(response.results().stream().allMatch(result -> result.status() == FAILED));
+        Mockito.verify(stateMachine).transitionAll(Mockito.anyCollection(), Mockito.eq(PENDING), Mockito.eq(FAILED));
+        Mockito.verifyNoInteractions(paymentClient, releaseQueue);
+    }
+
+    @Test
+    void partialPaymentFailureShouldReleaseOnlyTheFailedOrders() {
+        // Given
+        Mockito.doThrow(new BusinessException("Payment declined"))
+                .when(paymentClient)
+                .requestOrderPayment(Mockito.argThat(payment -> payment != null && "ORD-2".equals(payment.orderReference())));
+
+        // When
+        var response = service.createOrders(List.of(
+                request("ORD-1", "customer-1", 1, 1),
+                request("ORD-2", "customer-2", 2, 3)
+        ));
+
+        // Then
+        var purchaseKey = purchaseKey();
+        var failedOrderId = response.results().get(1).orderId();
+        Assertions.assertEquals(CONFIRMED, response.results().get(0).status());
+        Assertions.assertEquals(FAILED, response.results().get(1).status());
+        Mockito.verify(releaseQueue).enqueue(
+                purchaseKey,
+                PurchaseKeys.releaseOf(purchaseKey, failedOrderId),
+                List.of(new PurchaseRequest(2, 3))
+        );
+        Mockito.verifyNoMoreInteractions(releaseQueue);
+    }
+
+    @Test
+    void failedConfirmationShouldReportTheOrdersAsPaid() {
+        // Given
+        Mockito.doThrow(new IllegalStateException("Outbox unavailable")).when(stateMachine).confirmAll(Mockito.anyMap());
+
+        // When
+        var response = service.createOrders(List.of(request("ORD-1", "customer-1", 1, 1)));
+
+        // Then
+        Assertions.assertEquals(0, response.confirmed());
+        Assertions.assertEquals(PAID, response.results().getFirst().status());
+        Assertions.assertTrue(response.results().getFirst().error().startsWith("Confirmation failed"));
+        Mockito.verifyNoInteractions(releaseQueue);
+    }
+
+    @Test
+    void failedStockReservationShouldReleaseThePurchaseAndFailEveryOrder() {
+        // Given
+        Mockito.doThrow(new IllegalStateException("Database unavailable"))
+                .when(stateMachine).transitionAll(Mockito.anyCollection(), Mockito.eq(PENDING), Mockito.eq(STOCK_RESERVED));
+
+        // When
+        var response = service.createOrders(List.of(
+                request("ORD-1", "customer-1", 1, 1),
+                request("ORD-2", "customer-2", 2, 3)
+        ));
+
+        // Then
+        var purchaseKey = purchaseKey();
+        Assertions.assertTrue(response.results().stream().allMatch(result -> result.status() == FAILED));
+        Mockito.verify(stateMachine).transitionAll(Mockito.anyCollection(), Mockito.eq(PENDING), Mockito.eq(FAILED));
+        for (var result : response.results()) {
+            Mockito.verify(releaseQueue).enqueue(
+                    Mockito.eq(purchaseKey),
+                    Mockito.eq(PurchaseKeys.releaseOf(purchaseKey, result.orderId())),
+                    Mockito.anyList()
+            );
+        }
+        Mockito.verifyNoInteractions(paymentClient);
+    }
+
+    @Test
+    void failedPaidTransitionShouldReleaseThePaidOrdersAndFailThem() {
+        // Given
+        Mockito.doThrow(new IllegalStateException("Database unavailable"))
+                .when(stateMachine).transitionAll(Mockito.anyCollection(), Mockito.eq(STOCK_RESERVED), Mockito.eq(PAID));
+
+        // When
+        var response = service.createOrders(List.of(request("ORD-1", "customer-1", 1, 2)));
+
+        // Then
+        var purchaseKey = purchaseKey();
+        var result = response.results().getFirst();
+        Assertions.assertEquals(FAILED, result.status());
+        Assertions.assertTrue(result.error().startsWith("Order could not be updated"));
+        Mockito.verify(releaseQueue).enqueue(
+                purchaseKey,
+                PurchaseKeys.releaseOf(purchaseKey, result.orderId()),
+                List.of(new PurchaseRequest(1, 2))
+        );
+        Mockito.verify(stateMachine, Mockito.never()).confirmAll(Mockito.anyMap());
+    }
+
+    private String purchaseKey() {
+        var purchaseKey = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(productClient).purchaseProducts(purchaseKey.capture(), Mockito.anyList());
+        return purchaseKey.getValue();
+    }
+
+    private static OrderRequest request(String reference, String customerId, int productId, double quantity) {
+        return new OrderRequest(
+                null,
+                reference,
+                BigDecimal.TEN,
+                PaymentMethod.VISA,
+                customerId,
+                List.of(new PurchaseRequest(productId, quantity))
+        );
+    }
+
+    private static CustomerResponse customer(String customerId) {
+        return new CustomerResponse(customerId, "Jane", "Doe", customerId + "@example.com");
+    }
+
+    private static ThreadPoolTaskExecutor executor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        return executor;
+    }
+}
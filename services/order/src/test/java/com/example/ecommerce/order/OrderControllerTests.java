@@ -0,0 +1,98 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.exception.IdempotencyKeyMismatchException;
+import com.example.ecommerce.exception.OrderInProgressException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = OrderController.class, properties = "spring.cloud.config.enabled=false")
+public class OrderControllerTests {
+
+    private static final String ORDER = """
+            {
+              "reference": "ORD-1",
+              "amount": 10,
+              "paymentMethod": "VISA",
+              "customerId": "customer-1",
+              "products": [{"productId": 1, "quantity": 2}]
+            }""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private OrderService service;
+
+    @MockitoBean
+    private BulkOrderService bulkOrderService;
+
+    // @EnableJpaAuditing on the application needs a JPA mapping context, which a web slice does not have
+    @MockitoBean
+    private JpaMetamodelMappingContext jpaMappingContext;
+
+    @Test
+    void repeatedOrderShouldReturnTheOrderOfTheFirstSubmission() throws Exception {
+        // Given
+        Mockito.when(service.createOrder(Mockito.any(), Mockito.eq("key-1"))).thenReturn(42);
+
+        // When / Then
+        mockMvc.perform(createOrder("key-1")).andExpect(status().isOk()).andExpect(content().string("42"));
+        mockMvc.perform(createOrder("key-1")).andExpect(status().isOk()).andExpect(content().string("42"));
+        Mockito.verify(service, Mockito.times(2)).createOrder(Mockito.any(), Mockito.eq("key-1"));
+    }
+
+    @Test
+    void keyReusedForADifferentOrderShouldBeUnprocessable() throws Exception {
+        // Given
+        Mockito.when(service.createOrder(Mockito.any(), Mockito.eq("key-1")))
+                .thenThrow(new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request:: key-1"));
+
+        // When / Then
+        mockMvc.perform(createOrder("key-1"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void orderStillInProgressShouldPointAtItsStatus() throws Exception {
+        // Given
+        Mockito.when(service.createOrder(Mockito.any(), Mockito.eq("key-1")))
+                .thenThrow(new OrderInProgressException("Order is still being processed", 42));
+
+        // When / Then
+        mockMvc.perform(createOrder("key-1"))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Location", "/api/v1/orders/42/status"))
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void asynchronousOrderShouldBeAcceptedWithItsStatusLocation() throws Exception {
+        // Given
+        Mockito.when(service.submitOrder(Mockito.any(), Mockito.eq("key-1"))).thenReturn(42);
+
+        // When / Then
+        mockMvc.perform(createOrder("key-1").header("Prefer", "respond-async"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/api/v1/orders/42/status"))
+                .andExpect(header().string("Preference-Applied", "respond-async"));
+    }
+
+    private static MockHttpServletRequestBuilder createOrder(String idempotencyKey) {
+        return post("/api/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", idempotencyKey)
+                .content(ORDER);
+    }
+}
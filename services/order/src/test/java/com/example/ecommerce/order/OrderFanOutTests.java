@@ -0,0 +1,117 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.customer.CustomerCache;
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.product.ProductClient;
+import com.example.ecommerce.product.ProductReleaseQueue;
+import com.example.ecommerce.product.PurchaseRequest;
+import com.example.ecommerce.product.PurchaseResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class OrderFanOutTests {
+
+    private static final String PURCHASE_KEY = "order-1";
+
+    private CustomerCache customerCache;
+    private ProductClient productClient;
+    private ProductReleaseQueue releaseQueue;
+    private ThreadPoolTaskExecutor executor;
+    private OrderFanOut fanOut;
+
+    @BeforeEach
+    void setUp() {
+        customerCache = Mockito.mock(CustomerCache.class);
+        productClient = Mockito.mock(ProductClient.class);
+        releaseQueue = Mockito.mock(ProductReleaseQueue.class);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        executor.initialize();
+        var meterRegistry = new SimpleMeterRegistry();
+        fanOut = new OrderFanOut(
+                customerCache,
+                productClient,
+                releaseQueue,
+                meterRegistry,
+                new DownstreamCallTimer(meterRegistry),
+                executor
+        );
+        ReflectionTestUtils.setField(fanOut, "concurrent", true);
+        ReflectionTestUtils.setField(fanOut, "timeout", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void purchaseInFlightWhenTheCustomerLookupFailsShouldBeReleasedExactlyOnce() throws Exception {
+        // Given
+        var purchaseStarted = new CountDownLatch(1);
+        var customerFailed = new CountDownLatch(1);
+        Mockito.when(customerCache.findCustomerById("customer-1")).thenAnswer(invocation -> {
+            purchaseStarted.await(5, TimeUnit.SECONDS);
+            customerFailed.countDown();
+            return Optional.empty();
+        });
+        Mockito.when(productClient.purchaseProducts(Mockito.eq(PURCHASE_KEY), Mockito.anyList())).thenAnswer(invocation -> {
+            purchaseStarted.countDown();
+            customerFailed.await(5, TimeUnit.SECONDS);
+            return List.of(new PurchaseResponse(7, "Product", "Description", BigDecimal.TEN, 2));
+        });
+
+        // When
+        Assertions.assertThrows(BusinessException.class, () -> fanOut.prepare(PURCHASE_KEY, orderRequest()));
+        // the release runs on the purchase thread, shutting down waits for it
+        executor.shutdown();
+
+        // Then
+        Mockito.verify(releaseQueue, Mockito.times(1))
+                .enqueue(PURCHASE_KEY, PURCHASE_KEY, List.of(new PurchaseRequest(7, 2)));
+        Mockito.verifyNoMoreInteractions(releaseQueue);
+    }
+
+    @Test
+    void failedPurchaseShouldNotBeReleased() {
+        // Given
+        Mockito.when(customerCache.findCustomerById("customer-1")).thenReturn(Optional.empty());
+        Mockito.when(productClient.purchaseProducts(Mockito.eq(PURCHASE_KEY), Mockito.anyList()))
+                .thenThrow(new BusinessException("Products could not be purchased"));
+
+        // When
+        Assertions.assertThrows(BusinessException.class, () -> fanOut.prepare(PURCHASE_KEY, orderRequest()));
+        executor.shutdown();
+
+        // Then
+        Mockito.verifyNoInteractions(releaseQueue);
+    }
+
+    private static OrderRequest orderRequest() {
+        return new OrderRequest(
+                null,
+                "ORD-1",
+                BigDecimal.TEN,
+                PaymentMethod.VISA,
+                "customer-1",
+                List.of(new PurchaseRequest(7, 2))
+        );
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.orderline.OrderLine;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class OrderRepositoryTests {
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private List<Integer> orderIds;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        orderIds = IntStream.rangeClosed(1, 10)
+                .mapToObj(this::persistOrderWithLines)
+                .toList();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllWithOrderLinesByIdInShouldLoadOrdersAndLinesInOneStatement() {
+        // When
+        var orders = repository.findAllWithOrderLinesByIdIn(orderIds);
+        var lineCount = orders.stream()
+                .mapToInt(order -> order.getOrderLines().size())
+                .sum();
+
+        // Then
+        Assertions.assertEquals(10, orders.size());
+        Assertions.assertEquals(30, lineCount);
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findWithOrderLinesByIdShouldLoadOrderAndLinesInOneStatement() {
+        // When
+        var order = repository.findWithOrderLinesById(orderIds.get(0)).orElseThrow();
+
+        // Then
+        Assertions.assertEquals(3, order.getOrderLines().size());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void idsDrawnStraightFromTheSequenceShouldNeverBeHandedOutByHibernate() {
+        // Given
+        var rawIds = new HashSet<Integer>();
+        var jpaIds = new HashSet<>(orderIds);
+
+        // When
+        for (int round = 0; round < 3; round++) {
+            rawIds.add(((Number) entityManager.getEntityManager()
+                    .createNativeQuery("select next value for customer_order_seq")
+                    .getSingleResult()).intValue());
+            IntStream.rangeClosed(1, 60)
+                    .map(index -> 1000 + rawIds.size() * 100 + index)
+                    .forEach(index -> jpaIds.add(persistOrderWithLines(index)));
+        }
+
+        // Then
+        Assertions.assertEquals(3, rawIds.size());
+        Assertions.assertEquals(190, jpaIds.size());
+        rawIds.forEach(rawId -> Assertions.assertFalse(jpaIds.contains(rawId), "Hibernate reused id " + rawId));
+    }
+
+    private Integer persistOrderWithLines(int index) {
+        var order = entityManager.persist(
+                Order.builder()
+                        .reference("ORD-" + index)
+                        .status(OrderStatus.CONFIRMED)
+                        .build()
+        );
+        IntStream.rangeClosed(1, 3).forEach(productId -> entityManager.persist(
+                OrderLine.builder()
+                        .order(order)
+                        .productId(productId)
+                        .quantity(1)
+                        .build()
+        ));
+        entityManager.flush();
+        return order.getId();
+    }
+}
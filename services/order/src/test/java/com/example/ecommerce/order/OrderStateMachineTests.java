@@ -0,0 +1,151 @@
+package com.example.ecommerce.order;
+
+import com.example.ecommerce.exception.BusinessException;
+import com.example.ecommerce.idempotency.IdempotencyStore;
+import com.example.ecommerce.orderline.OrderLineService;
+import com.example.ecommerce.outbox.OrderOutbox;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.ecommerce.order.OrderStatus.CONFIRMED;
+import static com.example.ecommerce.order.OrderStatus.FAILED;
+import static com.example.ecommerce.order.OrderStatus.PENDING;
+import static com.example.ecommerce.order.OrderStatus.STOCK_RESERVED;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false"
+})
+@Import(OrderStateMachine.class)
+public class OrderStateMachineTests {
+
+    @Autowired
+    private OrderStateMachine stateMachine;
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private OrderMapper mapper;
+
+    @MockitoBean
+    private OrderLineService orderLineService;
+
+    @MockitoBean
+    private OrderOutbox orderOutbox;
+
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
+    @Test
+    void transitionShouldMatchTheExactCreationDateOfTheOrder() {
+        // Given
+        var order = persistOrder("ORD-1", PENDING);
+
+        // When
+        stateMachine.transition(order, PENDING, STOCK_RESERVED);
+
+        // Then
+        Assertions.assertEquals(STOCK_RESERVED, reload(order).getStatus());
+    }
+
+    @Test
+    void transitionShouldNotMatchAnOrderCreatedAtAnotherTime() {
+        // Given
+        var order = persistOrder("ORD-1", PENDING);
+        var other = Order.builder()
+                .id(order.getId())
+                .createdDate(order.getCreatedDate().plusNanos(1_000))
+                .build();
+
+        // When / Then
+        Assertions.assertThrows(BusinessException.class, () -> stateMachine.transition(other, PENDING, STOCK_RESERVED));
+        Assertions.assertEquals(PENDING, reload(order).getStatus());
+    }
+
+    @Test
+    void illegalTransitionShouldBeRejectedWithoutTouchingTheOrder() {
+        // Given
+        var order = persistOrder("ORD-1", CONFIRMED);
+
+        // When / Then
+        Assertions.assertThrows(IllegalStateException.class, () -> stateMachine.transition(order, CONFIRMED, PENDING));
+        Assertions.assertThrows(IllegalStateException.class, () -> stateMachine.transitionAll(List.of(order), PENDING, CONFIRMED));
+        Assertions.assertEquals(CONFIRMED, reload(order).getStatus());
+    }
+
+    @Test
+    void batchShouldNotMoveWhenOneOfItsOrdersAlreadyMoved() {
+        // Given
+        var first = persistOrder("ORD-1", PENDING);
+        var second = persistOrder("ORD-2", FAILED);
+
+        // When / Then
+        Assertions.assertThrows(BusinessException.class, () -> stateMachine.transitionAll(List.of(first, second), PENDING, STOCK_RESERVED));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentTransitionsOfTheSameOrderShouldLetExactlyOneWin() throws Exception {
+        // Given
+        var order = repository.save(Order.builder().reference("ORD-RACE").status(PENDING).build());
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var outcomes = new ArrayList<Future<Boolean>>();
+            for (var next : List.of(STOCK_RESERVED, FAILED)) {
+                outcomes.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    try {
+                        stateMachine.transition(order, PENDING, next);
+                        return true;
+                    } catch (BusinessException e) {
+                        return false;
+                    }
+                }));
+            }
+
+            // When
+            start.countDown();
+            var won = 0;
+            for (var outcome : outcomes) {
+                won += outcome.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            // Then
+            Assertions.assertEquals(1, won);
+            Assertions.assertNotEquals(PENDING, repository.findById(order.getId()).orElseThrow().getStatus());
+        } finally {
+            executor.shutdownNow();
+            repository.deleteAll();
+        }
+    }
+
+    private Order persistOrder(String reference, OrderStatus status) {
+        var order = entityManager.persistAndFlush(Order.builder().reference(reference).status(status).build());
+        entityManager.detach(order);
+        return order;
+    }
+
+    private Order reload(Order order) {
+        entityManager.clear();
+        return repository.findById(order.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ecommerce.orderline;
+
+import com.example.ecommerce.order.Order;
+import com.example.ecommerce.order.OrderStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Import({OrderLineService.class, OrderLineMapper.class})
+public class OrderLineServiceTests {
+
+    // 4 insert batches of 50 lines plus about 5 pooled sequence calls for 200 ids
+    private static final long MAX_STATEMENTS = 12;
+
+    @Autowired
+    private OrderLineService service;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        order = entityManager.persistAndFlush(
+                Order.builder()
+                        .reference("ORD-BATCH")
+                        .status(OrderStatus.PENDING)
+                        .build()
+        );
+        statistics.clear();
+    }
+
+    @Test
+    void saveOrderLinesShouldInsertTwoHundredLinesInConstantNumberOfStatements() {
+        // Given
+        var requests = orderLineRequests(200);
+
+        // When
+        var ids = service.saveOrderLines(requests);
+        entityManager.flush();
+
+        // Then
+        Assertions.assertEquals(200, ids.size());
+        Assertions.assertEquals(200, statistics.getEntityInsertCount());
+        Assertions.assertTrue(
+                statistics.getPrepareStatementCount() <= MAX_STATEMENTS,
+                "Expected at most " + MAX_STATEMENTS + " statements but was " + statistics.getPrepareStatementCount()
+        );
+    }
+
+    @Test
+    void saveOrderLinesShouldAttachEveryLineToTheOrder() {
+        // Given
+        var requests = orderLineRequests(3);
+
+        // When
+        service.saveOrderLines(requests);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        var saved = service.findAllByOrderId(order.getId());
+        Assertions.assertEquals(3, saved.size());
+    }
+
+    private List<OrderLineRequest> orderLineRequests(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> new OrderLineRequest(null, order.getId(), i, 1))
+                .toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.ecommerce.notification;
+
+import com.example.ecommerce.payment.PaymentMethod;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentNotificationSerdeBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private PaymentNotificationRequest notification;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(PaymentNotificationRequest.class);
+        reader = objectMapper.readerFor(PaymentNotificationRequest.class);
+        notification = new PaymentNotificationRequest(
+                "ORD-BENCH",
+                new BigDecimal("249.90"),
+                PaymentMethod.VISA,
+                "Jane",
+                "Doe",
+                "jane.doe@example.com"
+        );
+        json = writer.writeValueAsBytes(notification);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(notification);
+    }
+
+    @Benchmark
+    public PaymentNotificationRequest deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
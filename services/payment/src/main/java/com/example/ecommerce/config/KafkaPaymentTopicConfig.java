@@ -1,6 +1,7 @@
 package com.example.ecommerce.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -9,9 +10,14 @@ import org.springframework.kafka.config.TopicBuilder;
 public class KafkaPaymentTopicConfig {
 
     @Bean
-    public NewTopic paymentTopic() {
+    public NewTopic paymentTopic(
+            @Value("${application.config.kafka.payment-topic.partitions:6}") int partitions,
+            @Value("${application.config.kafka.payment-topic.replicas:1}") int replicas
+    ) {
         return TopicBuilder
                 .name("payment-topic")
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 }
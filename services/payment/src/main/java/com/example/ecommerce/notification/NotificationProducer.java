@@ -1,5 +1,7 @@
 package com.example.ecommerce.notification;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -12,14 +14,29 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationProducer {
+
+    private static final String PAYMENT_TOPIC = "payment-topic";
+
     private final KafkaTemplate<String, PaymentNotificationRequest> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
-    public void sendNotification(PaymentNotificationRequest request) {
-        log.info("Sending notification; body = {}", request);
+    public void sendNotification(String key, PaymentNotificationRequest request) {
+        log.debug("Sending notification for order {}", request.orderReference());
         Message<PaymentNotificationRequest> message = MessageBuilder
                 .withPayload(request)
-                .setHeader(KafkaHeaders.TOPIC, "payment-topic")
+                .setHeader(KafkaHeaders.TOPIC, PAYMENT_TOPIC)
+                .setHeader(KafkaHeaders.KEY, key)
                 .build();
-        kafkaTemplate.send(message);
+        var sample = Timer.start(meterRegistry);
+        kafkaTemplate.send(message).whenComplete((result, ex) -> {
+            sample.stop(Timer.builder("kafka.producer.send")
+                    .description("Time until a record is acknowledged by the broker")
+                    .tag("topic", PAYMENT_TOPIC)
+                    .tag("outcome", ex == null ? "success" : "failure")
+                    .register(meterRegistry));
+            if (ex != null) {
+                log.error("Payment notification for order {} was not acknowledged", request.orderReference(), ex);
+            }
+        });
     }
 }
@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
-@Table(name = "payment")
+@Table(name = "payment", uniqueConstraints = @UniqueConstraint(name = "uk_payment_order_id", columnNames = "order_id"))
 public class Payment {
 
     @Id
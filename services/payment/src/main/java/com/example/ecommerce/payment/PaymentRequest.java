@@ -1,11 +1,14 @@
 package com.example.ecommerce.payment;
 
+import jakarta.validation.constraints.NotNull;
+
 import java.math.BigDecimal;
 
 public record PaymentRequest(
         Integer id,
         BigDecimal amount,
         PaymentMethod paymentMethod,
+        @NotNull(message = "Order is required")
         Integer orderId,
         String orderReference,
         Customer customer
@@ -3,6 +3,7 @@ package com.example.ecommerce.payment;
 import com.example.ecommerce.notification.NotificationProducer;
 import com.example.ecommerce.notification.PaymentNotificationRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,10 +14,25 @@ public class PaymentService {
     private final PaymentMapper mapper;
     private final NotificationProducer notificationProducer;
 
+    /**
+     * An order is paid at most once: a request for an order that already has a payment, e.g. sent again
+     * by the order service while recovering the order, answers with that payment and notifies nobody.
+     */
     public Integer createPayment(PaymentRequest request) {
-        var payment = this.repository.save(this.mapper.mapPaymentRequestToPayment(request));
+        var existing = this.repository.findByOrderId(request.orderId());
+        if (existing.isPresent()) {
+            return existing.get().getId();
+        }
+        Payment payment;
+        try {
+            payment = this.repository.saveAndFlush(this.mapper.mapPaymentRequestToPayment(request));
+        } catch (DataIntegrityViolationException e) {
+            return this.repository.findByOrderId(request.orderId()).map(Payment::getId).orElseThrow(() -> e);
+        }
 
+        var customerId = request.customer().id();
         this.notificationProducer.sendNotification(
+                customerId != null ? customerId : request.orderReference(),
                 new PaymentNotificationRequest(
                         request.orderReference(),
                         request.amount(),
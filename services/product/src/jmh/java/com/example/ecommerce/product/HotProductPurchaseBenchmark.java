@@ -0,0 +1,97 @@
+package com.example.ecommerce.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases per second of a single product by 32 concurrent callers, each purchase in its own
+ * transaction versus coalesced into one transaction per window. Runs against in-memory H2, so the
+ * numbers show the effect of fewer row-lock hand-offs and commits rather than PostgreSQL throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class HotProductPurchaseBenchmark {
+
+    private static final long PRODUCT_ID = 1;
+    private static final ProductPurchaseRequest PURCHASE = new ProductPurchaseRequest(PRODUCT_ID, 1);
+
+    @Param({"100", "1000"})
+    private long windowMicros;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ProductStockRepository stockRepository;
+    private TransactionTemplate transactionTemplate;
+    private PurchaseCoalescer coalescer;
+
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:hot-product;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(32);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                create table product
+                (
+                    id bigint not null primary key,
+                    description varchar(255),
+                    name varchar(255),
+                    available_quantity double precision not null,
+                    price numeric(38, 2)
+                )""");
+        jdbcTemplate.update("insert into product (id, name, description, available_quantity, price) values (?, 'Hot product', 'Flash sale', 0, 9.99)", PRODUCT_ID);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        var catalogCache = new ProductCatalogCache(new SimpleMeterRegistry(), new ObjectMapper(), 10_000, Duration.ofSeconds(30));
+        stockRepository = new ProductStockRepository(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        coalescer = new PurchaseCoalescer(stockRepository, new ProductMapper(), catalogCache, transactionManager, true, Duration.ofNanos(windowMicros * 1000));
+    }
+
+    @Setup(Level.Iteration)
+    public void restock() {
+        jdbcTemplate.update("update product set available_quantity = 1e12 where id = ?", PRODUCT_ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("drop table product");
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int[] transactionPerPurchase() {
+        return transactionTemplate.execute(status -> stockRepository.decrementStock(List.of(PURCHASE)));
+    }
+
+    @Benchmark
+    public ProductPurchaseResponse coalesced() {
+        return coalescer.purchase(PURCHASE);
+    }
+}
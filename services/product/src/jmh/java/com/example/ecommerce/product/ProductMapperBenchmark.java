@@ -0,0 +1,55 @@
+package com.example.ecommerce.product;
+
+import com.example.ecommerce.category.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+
+    private ProductMapper mapper;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        mapper = new ProductMapper();
+        product = Product.builder()
+                .id(1L)
+                .name("Keyboard")
+                .description("Mechanical keyboard")
+                .availableQuantity(100)
+                .price(new BigDecimal("49.98"))
+                .category(Category.builder()
+                        .id(1L)
+                        .name("Keyboards")
+                        .description("Computer keyboards")
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public ProductResponse mapFromProductToProductResponse() {
+        return mapper.mapFromProductToProductResponse(product);
+    }
+
+    @Benchmark
+    public ProductPurchaseResponse mapFromProductToProductPurchaseResponse() {
+        return mapper.mapFromProductToProductPurchaseResponse(product, 2);
+    }
+}
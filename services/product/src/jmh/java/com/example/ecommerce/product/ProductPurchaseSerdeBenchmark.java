@@ -0,0 +1,64 @@
+package com.example.ecommerce.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * JSON serde of the purchase response returned to the order service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPurchaseSerdeBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int products;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<ProductPurchaseResponse> purchase;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        var objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ProductPurchaseResponse.class));
+        reader = objectMapper.readerForListOf(ProductPurchaseResponse.class);
+        purchase = LongStream.rangeClosed(1, products)
+                .mapToObj(i -> new ProductPurchaseResponse(i, "Product " + i, "Description of product " + i, new BigDecimal("49.98"), 1))
+                .toList();
+        json = writer.writeValueAsBytes(purchase);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(purchase);
+    }
+
+    @Benchmark
+    public List<ProductPurchaseResponse> deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.HashMap;
 
@@ -29,6 +30,21 @@ public class GlobalExceptionHandler {
                 .body(e.getMessage());
     }
 
+    // constraints on list elements, path variables and headers are checked by method validation
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleHandlerMethodValidationException(HandlerMethodValidationException e) {
+        var errors = new HashMap<String, String>();
+        e.getAllValidationResults()
+                .forEach(result -> result.getResolvableErrors()
+                        .forEach(error -> errors.put(
+                                error instanceof FieldError fieldError ? fieldError.getField() : result.getMethodParameter().getParameterName(),
+                                error.getDefaultMessage()
+                        )));
+        return ResponseEntity
+                .status(BAD_REQUEST)
+                .body(new ErrorResponse(errors));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
         var errors = new HashMap<String, String>();
@@ -0,0 +1,12 @@
+package com.example.ecommerce.product;
+
+/**
+ * A cached catalog response with the validator sent for conditional GETs. The strong ETag is a digest
+ * of the response serialized to JSON, so it changes whenever any field does.
+ */
+public record CatalogEntry<T>(
+        T body,
+        String eTag,
+        long loadedAtNanos
+) {
+}
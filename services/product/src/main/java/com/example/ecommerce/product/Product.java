@@ -21,7 +21,7 @@ public class Product {
     private String description;
     private double availableQuantity;
     private BigDecimal price;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 }
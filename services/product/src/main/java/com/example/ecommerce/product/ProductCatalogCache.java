@@ -0,0 +1,145 @@
+package com.example.ecommerce.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Read cache for single products and product listings. Writes in this service invalidate the affected
+ * entries after their transaction commits; changes made through another instance are only picked up
+ * when entries expire. A stock change only drops the listings that show one of the changed products or
+ * whose membership or order depends on stock.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, CatalogEntry<ProductResponse>> products;
+    private final Cache<ListingKey, CatalogEntry<ProductPage>> listings;
+    private final DistributionSummary servedAge;
+
+    public ProductCatalogCache(
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${application.config.catalog-cache.maximum-size:10000}") long maximumSize,
+            @Value("${application.config.catalog-cache.expire-after-write:30s}") Duration expireAfterWrite
+    ) {
+        this.objectMapper = objectMapper;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.listings = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "product-listings");
+        this.servedAge = DistributionSummary.builder("product.catalog.cache.served.age")
+                .description("Age of the cached catalog entries served")
+                .baseUnit("seconds")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("product.catalog.cache.oldest.age", this, ProductCatalogCache::oldestEntryAgeSeconds)
+                .description("Age of the oldest cached catalog entry")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public CatalogEntry<ProductResponse> product(Long id, Supplier<ProductResponse> loader) {
+        return served(products.get(id, key -> entry(loader.get())));
+    }
+
+    public CatalogEntry<ProductPage> listing(ProductFilter filter, Pageable pageable, Supplier<ProductPage> loader) {
+        return served(listings.get(new ListingKey(filter, pageable), key -> entry(loader.get())));
+    }
+
+    /**
+     * Drops the given products and the listings their stock change can affect once the surrounding
+     * transaction has committed, or right away outside a transaction. Invalidating earlier would let a
+     * concurrent read cache the old state.
+     */
+    public void invalidate(Collection<Long> productIds) {
+        afterCommit(() -> {
+            products.invalidateAll(productIds);
+            listings.asMap().entrySet().removeIf(listing -> listing.getKey().dependsOnStock()
+                    || listing.getValue().body().content().stream().anyMatch(product -> productIds.contains(product.id())));
+        });
+    }
+
+    /**
+     * Drops every listing after commit, for a new product that any of them may have to show.
+     */
+    public void invalidateListings() {
+        afterCommit(listings::invalidateAll);
+    }
+
+    private static void afterCommit(Runnable invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        } else {
+            invalidation.run();
+        }
+    }
+
+    private <T> CatalogEntry<T> served(CatalogEntry<T> entry) {
+        servedAge.record((System.nanoTime() - entry.loadedAtNanos()) / 1e9);
+        return entry;
+    }
+
+    /**
+     * No Last-Modified is sent: products carry no modification time, and the load time would let a client
+     * holding a listing keep it as "not modified" after a write that landed in the same second.
+     */
+    private <T> CatalogEntry<T> entry(T body) {
+        try {
+            var eTag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body)) + "\"";
+            return new CatalogEntry<>(body, eTag, System.nanoTime());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot compute the ETag of a catalog entry", e);
+        }
+    }
+
+    private double oldestEntryAgeSeconds() {
+        var now = System.nanoTime();
+        var oldest = Stream.concat(products.asMap().values().stream(), listings.asMap().values().stream())
+                .mapToLong(CatalogEntry::loadedAtNanos)
+                .min()
+                .orElse(now);
+        return (now - oldest) / 1e9;
+    }
+
+    private record ListingKey(
+            ProductFilter filter,
+            Pageable pageable
+    ) {
+
+        // a stock change can move products in or out of an in-stock listing, or across its pages
+        boolean dependsOnStock() {
+            return filter.inStock() || pageable.getSort().getOrderFor(ProductSortField.AVAILABLE_QUANTITY.property()) != null;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.ecommerce.product;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -12,7 +18,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    public static final String PURCHASE_KEY_HEADER = "Purchase-Key";
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProductService service;
+    private final PurchaseCoalescer purchaseCoalescer;
 
     @PostMapping
     public ResponseEntity<Long> createProduct(@RequestBody @Valid ProductRequest request) {
@@ -20,17 +31,61 @@ public class ProductController {
     }
 
     @PostMapping("/purchase")
-    public ResponseEntity<List<ProductPurchaseResponse>> purchaseProducts(@RequestBody List<ProductPurchaseRequest> request) {
-        return ResponseEntity.ok(service.purchaseProducts(request));
+    public ResponseEntity<List<ProductPurchaseResponse>> purchaseProducts(
+            @RequestHeader(name = PURCHASE_KEY_HEADER, required = false) @Size(max = 100) String purchaseKey,
+            @RequestBody @NotEmpty List<@Valid ProductPurchaseRequest> request
+    ) {
+        if (purchaseCoalescer.accepts(request)) {
+            return ResponseEntity.ok(List.of(purchaseCoalescer.purchase(purchaseKey, request.getFirst())));
+        }
+        return ResponseEntity.ok(service.purchaseProducts(purchaseKey, request));
+    }
+
+    /**
+     * Internal, only called by the order service to undo a keyed purchase. The gateway does not route it.
+     */
+    @PutMapping("/purchases/{purchase-key}/releases/{release-key}")
+    public ResponseEntity<Void> releasePurchase(
+            @PathVariable("purchase-key") @Size(max = 100) String purchaseKey,
+            @PathVariable("release-key") @Size(max = 200) String releaseKey,
+            @RequestBody @NotEmpty List<@Valid ProductPurchaseRequest> request
+    ) {
+        service.releasePurchase(purchaseKey, releaseKey, request);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{product-id}")
     public ResponseEntity<ProductResponse> findById(@PathVariable("product-id") Long productId) {
-        return ResponseEntity.ok(service.findById(productId));
+        return cacheable(service.findById(productId));
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> findAll() {
-        return ResponseEntity.ok(service.findAll());
+    public ResponseEntity<ProductPage> findProducts(
+            @RequestParam(value = "category-id", required = false) Long categoryId,
+            @RequestParam(value = "min-price", required = false) BigDecimal minPrice,
+            @RequestParam(value = "max-price", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "in-stock", defaultValue = "false") boolean inStock,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "sort", defaultValue = "ID") ProductSortField sort,
+            @RequestParam(value = "direction", defaultValue = "ASC") Sort.Direction direction
+    ) {
+        var filter = new ProductFilter(categoryId, minPrice, maxPrice, inStock);
+        var order = sort == ProductSortField.ID
+                ? Sort.by(direction, sort.property())
+                : Sort.by(direction, sort.property()).and(Sort.by(ProductSortField.ID.property()));
+        var pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), order);
+        return cacheable(service.findProducts(filter, pageable));
+    }
+
+    /**
+     * Spring answers If-None-Match against the ETag with a 304 and no body.
+     * no-cache lets clients store the response but makes them revalidate it on every use.
+     */
+    private static <T> ResponseEntity<T> cacheable(CatalogEntry<T> entry) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(entry.eTag())
+                .body(entry.body());
     }
 }
@@ -0,0 +1,11 @@
+package com.example.ecommerce.product;
+
+import java.math.BigDecimal;
+
+public record ProductFilter(
+        Long categoryId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        boolean inStock
+) {
+}
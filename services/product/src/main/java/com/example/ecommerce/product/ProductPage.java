@@ -0,0 +1,18 @@
+package com.example.ecommerce.product;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+public record ProductPage(
+        List<ProductResponse> content,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages
+) {
+
+    public static ProductPage of(Page<ProductResponse> page) {
+        return new ProductPage(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ecommerce.product;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface ProductQueryRepository {
+
+    /**
+     * Reads one page of products matching the filter, projected straight into responses with the
+     * category columns taken from a join. Only the filters that are set become predicates.
+     */
+    Page<ProductResponse> findPage(ProductFilter filter, Pageable pageable);
+}
@@ -0,0 +1,75 @@
+package com.example.ecommerce.product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+@RequiredArgsConstructor
+public class ProductQueryRepositoryImpl implements ProductQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<ProductResponse> findPage(ProductFilter filter, Pageable pageable) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(ProductResponse.class);
+        var product = query.from(Product.class);
+        var category = product.join("category", JoinType.LEFT);
+
+        query.select(cb.construct(
+                        ProductResponse.class,
+                        product.get("id"),
+                        product.get("name"),
+                        product.get("description"),
+                        product.get("availableQuantity"),
+                        product.get("price"),
+                        category.get("id"),
+                        category.get("name"),
+                        category.get("description")
+                ))
+                .where(predicates(cb, product, filter))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+
+        var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(filter));
+    }
+
+    private long count(ProductFilter filter) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Long.class);
+        var product = query.from(Product.class);
+        query.select(cb.count(product)).where(predicates(cb, product, filter));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // the category is filtered on the foreign key, so the count needs no join
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Product> product, ProductFilter filter) {
+        var predicates = new ArrayList<Predicate>();
+        if (filter.categoryId() != null) {
+            predicates.add(cb.equal(product.get("category").get("id"), filter.categoryId()));
+        }
+        if (filter.minPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.<BigDecimal>get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.<BigDecimal>get("price"), filter.maxPrice()));
+        }
+        if (filter.inStock()) {
+            predicates.add(cb.greaterThan(product.<Double>get("availableQuantity"), 0d));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.ecommerce.product;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductQueryRepository {
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Long id);
 
     List<Product> findAllByIdInOrderById(List<Long> ids);
 }
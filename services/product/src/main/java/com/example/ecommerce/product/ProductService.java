@@ -1,68 +1,186 @@
 package com.example.ecommerce.product;
 
 import com.example.ecommerce.exception.ProductPurchaseException;
+import com.example.ecommerce.reservation.StockLedger;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    // quantities are doubles, a release summed from several lines may differ from the purchase in the last bits
+    private static final double RELEASE_TOLERANCE = 1e-9;
+
     private final ProductRepository repository;
     private final ProductMapper mapper;
+    private final ProductStockRepository stockRepository;
+    private final ProductCatalogCache catalogCache;
+    private final StockLedger ledger;
+    private final PurchaseRecordRepository purchaseRecords;
+
+    @Value("${application.config.purchases.retention:7d}")
+    private Duration retention;
 
     public Long createProduct(ProductRequest request) {
         var product = mapper.mapFromProductRequesttoProduct(request);
-        return repository.save(product).getId();
+        var id = repository.save(product).getId();
+        catalogCache.invalidateListings();
+        return id;
     }
 
-    public ProductResponse findById(Long id) {
-        return repository.findById(id)
+    public CatalogEntry<ProductResponse> findById(Long id) {
+        return catalogCache.product(id, () -> repository.findById(id)
                 .map(mapper::mapFromProductToProductResponse)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with ID:: " + id));
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with ID:: " + id)));
     }
 
-    public List<ProductResponse> findAll() {
-        return repository.findAll()
-                .stream()
-                .map(mapper::mapFromProductToProductResponse)
-                .collect(Collectors.toList());
+    public CatalogEntry<ProductPage> findProducts(ProductFilter filter, Pageable pageable) {
+        return catalogCache.listing(filter, pageable, () -> ProductPage.of(repository.findPage(filter, pageable)));
     }
 
+    /**
+     * Takes the stock with one conditional update per product, sent as a single batch. Stock held by open
+     * reservations is left alone. A product whose update matched no row is either unknown or out of
+     * stock; the exception rolls back the stock already taken for the other products.
+     */
     @Transactional(rollbackFor = ProductPurchaseException.class)
     public List<ProductPurchaseResponse> purchaseProducts(List<ProductPurchaseRequest> request) {
-        var productIds = request
-                .stream()
-                .map(ProductPurchaseRequest::productId)
-                .toList();
-        var storedProducts = repository.findAllByIdInOrderById(productIds);
-        if (productIds.size() != storedProducts.size()) {
+        return purchaseProducts(null, request);
+    }
+
+    /**
+     * A {@code purchaseKey} records the stock taken, so that {@link #releasePurchase} can give back
+     * exactly that stock later. A key that was already used takes no stock again: the purchase is
+     * answered from its record, see {@link RecordedPurchase#replay}.
+     */
+    @Transactional(rollbackFor = ProductPurchaseException.class)
+    public List<ProductPurchaseResponse> purchaseProducts(String purchaseKey, List<ProductPurchaseRequest> request) {
+        if (purchaseKey == null) {
+            return purchase(request, Map.of());
+        }
+        var recorded = purchaseRecords.findAll(List.of(purchaseKey)).get(purchaseKey);
+        if (recorded != null) {
+            return quantities(request).entrySet()
+                    .stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .map(line -> recorded.replay(line.getKey(), line.getValue()))
+                    .toList();
+        }
+        var purchased = purchase(request, Map.of());
+        try {
+            purchaseRecords.insertAll(Map.of(purchaseKey, purchased), LocalDateTime.now());
+        } catch (DuplicateKeyException e) {
+            throw new ProductPurchaseException("Purchase " + purchaseKey + " is already being made");
+        }
+        return purchased;
+    }
+
+    /**
+     * Takes the stock of a reservation being confirmed: its own quantities may be used, the stock held
+     * by other reservations may not.
+     */
+    @Transactional(rollbackFor = ProductPurchaseException.class)
+    public List<ProductPurchaseResponse> purchaseReservedProducts(Map<Long, Double> reservedQuantities) {
+        return purchase(
+                reservedQuantities.entrySet()
+                        .stream()
+                        .map(line -> new ProductPurchaseRequest(line.getKey(), line.getValue()))
+                        .toList(),
+                reservedQuantities
+        );
+    }
+
+    private List<ProductPurchaseResponse> purchase(List<ProductPurchaseRequest> request, Map<Long, Double> ownReservation) {
+        var sortedRequest = sortByProductId(request);
+        var updated = stockRepository.decrementStock(
+                sortedRequest,
+                productId -> Math.max(0, ledger.reserved(productId) - ownReservation.getOrDefault(productId, 0.0))
+        );
+        catalogCache.invalidate(productIds(sortedRequest));
+        var storedProducts = repository.findAllByIdInOrderById(productIds(sortedRequest));
+        if (sortedRequest.size() != storedProducts.size()) {
             throw new ProductPurchaseException("One or more products does not exist");
         }
-        var sortedRequest = request
-                .stream()
-                .sorted(Comparator.comparing(ProductPurchaseRequest::productId))
-                .toList();
         var purchasedProducts = new ArrayList<ProductPurchaseResponse>();
         for (int i = 0; i < storedProducts.size(); i++) {
-            var product = storedProducts.get(i);
             var productRequest = sortedRequest.get(i);
-            if (product.getAvailableQuantity() < productRequest.quantity()) {
+            if (updated[i] == 0) {
                 throw new ProductPurchaseException("Insufficient stock quantity for product with ID:: " + productRequest.productId());
             }
-            var newAvailableQuantity = product.getAvailableQuantity() - productRequest.quantity();
-            product.setAvailableQuantity(newAvailableQuantity);
-            repository.save(product);
-            purchasedProducts.add(mapper.mapFromProductToProductPurchaseResponse(product, productRequest.quantity()));
+            purchasedProducts.add(mapper.mapFromProductToProductPurchaseResponse(storedProducts.get(i), productRequest.quantity()));
         }
+        ledger.taken(quantities(sortedRequest));
         return purchasedProducts;
     }
 
+    /**
+     * Gives back stock taken by the purchase {@code purchaseKey}. A release is applied at most once per
+     * {@code releaseKey}, so sending it again changes nothing, and never gives back more of a product
+     * than the purchase took. The purchase rows stay locked until the release commits, so concurrent
+     * releases of one purchase are checked one after the other.
+     */
+    @Transactional(rollbackFor = ProductPurchaseException.class)
+    public void releasePurchase(String purchaseKey, String releaseKey, List<ProductPurchaseRequest> request) {
+        var releasable = purchaseRecords.findReleasableForUpdate(purchaseKey);
+        if (releasable.isEmpty()) {
+            throw new EntityNotFoundException("No purchase found with key:: " + purchaseKey);
+        }
+        if (purchaseRecords.releaseExists(releaseKey)) {
+            return;
+        }
+        var released = sortByProductId(quantities(request).entrySet()
+                .stream()
+                .map(line -> new ProductPurchaseRequest(line.getKey(), line.getValue()))
+                .toList());
+        for (var line : released) {
+            if (line.quantity() > releasable.getOrDefault(line.productId(), 0.0) + RELEASE_TOLERANCE) {
+                throw new ProductPurchaseException("Cannot release more than purchase " + purchaseKey + " took of product with ID:: " + line.productId());
+            }
+        }
+        purchaseRecords.insertRelease(releaseKey, purchaseKey, LocalDateTime.now());
+        purchaseRecords.addReleased(purchaseKey, released);
+        stockRepository.incrementStock(released);
+        catalogCache.invalidate(productIds(released));
+    }
+
+    @Scheduled(fixedDelayString = "${application.config.purchases.purge-interval-ms:3600000}")
+    public void purgeExpiredPurchases() {
+        purchaseRecords.deleteAllCreatedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private static List<ProductPurchaseRequest> sortByProductId(List<ProductPurchaseRequest> request) {
+        return request
+                .stream()
+                .sorted(Comparator.comparing(ProductPurchaseRequest::productId))
+                .toList();
+    }
+
+    private static Map<Long, Double> quantities(List<ProductPurchaseRequest> request) {
+        return request
+                .stream()
+                .collect(Collectors.toMap(ProductPurchaseRequest::productId, ProductPurchaseRequest::quantity, Double::sum));
+    }
+
+    private static List<Long> productIds(List<ProductPurchaseRequest> request) {
+        return request
+                .stream()
+                .map(ProductPurchaseRequest::productId)
+                .toList();
+    }
+
 }
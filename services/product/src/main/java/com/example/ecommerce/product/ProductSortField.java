@@ -0,0 +1,21 @@
+package com.example.ecommerce.product;
+
+/**
+ * Sortable columns of the product listing. Every sort ends with the ID, so pages never overlap.
+ */
+public enum ProductSortField {
+    ID("id"),
+    NAME("name"),
+    PRICE("price"),
+    AVAILABLE_QUANTITY("availableQuantity");
+
+    private final String property;
+
+    ProductSortField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.ecommerce.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Set-based stock changes. Each row is changed by a single conditional statement, so concurrent
+ * purchases of the same product queue on its row lock instead of racing a read-modify-write. Callers
+ * pass the requests sorted by product ID so that every transaction locks rows in the same order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the affected row count per request: 0 if the product does not exist or has less stock
+     * than requested on top of what {@code held} keeps back for it, in which case nothing was taken.
+     */
+    public int[] decrementStock(List<ProductPurchaseRequest> requests, ToDoubleFunction<Long> held) {
+        return singleBatch(
+                "update product set available_quantity = available_quantity - ? where id = ? and available_quantity >= ?",
+                requests,
+                (ps, request) -> {
+                    ps.setDouble(1, request.quantity());
+                    ps.setLong(2, request.productId());
+                    ps.setDouble(3, request.quantity() + held.applyAsDouble(request.productId()));
+                }
+        );
+    }
+
+    public int[] incrementStock(List<ProductPurchaseRequest> requests) {
+        return singleBatch(
+                "update product set available_quantity = available_quantity + ? where id = ?",
+                requests,
+                (ps, request) -> {
+                    ps.setDouble(1, request.quantity());
+                    ps.setLong(2, request.productId());
+                }
+        );
+    }
+
+    private int[] singleBatch(
+            String sql,
+            List<ProductPurchaseRequest> requests,
+            ParameterizedPreparedStatementSetter<ProductPurchaseRequest> setter
+    ) {
+        if (requests.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(sql, requests, requests.size(), setter)[0];
+    }
+
+    /**
+     * Reads the product and holds its row lock until the surrounding transaction ends.
+     */
+    public Optional<Product> findByIdForUpdate(Long id) {
+        return jdbcTemplate.query(
+                        "select id, name, description, price, available_quantity from product where id = ? for update",
+                        (rs, rowNum) -> Product.builder()
+                                .id(rs.getLong("id"))
+                                .name(rs.getString("name"))
+                                .description(rs.getString("description"))
+                                .price(rs.getBigDecimal("price"))
+                                .availableQuantity(rs.getDouble("available_quantity"))
+                                .build(),
+                        id
+                )
+                .stream()
+                .findFirst();
+    }
+
+    public void updateStock(Long id, double availableQuantity) {
+        jdbcTemplate.update("update product set available_quantity = ? where id = ?", availableQuantity, id);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.ecommerce.product;
+
+import com.example.ecommerce.exception.ProductPurchaseException;
+import com.example.ecommerce.reservation.StockLedger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Group commit for single-product purchases. The first request for a product opens a batch; requests for
+ * the same product arriving meanwhile join it. The first request only waits for the coalescing window
+ * while another batch of that product is being applied, so a purchase without contention pays no extra
+ * latency. It then takes the row lock once, hands out stock in arrival order and writes the new quantity
+ * with a single update, so a hot product costs one transaction per window instead of one per purchase.
+ * Purchases of several products keep going through {@link ProductService#purchaseProducts}.
+ */
+@Component
+public class PurchaseCoalescer {
+
+    private final ProductStockRepository stockRepository;
+    private final ProductMapper mapper;
+    private final ProductCatalogCache catalogCache;
+    private final StockLedger ledger;
+    private final PurchaseRecordRepository purchaseRecords;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration window;
+    private final ConcurrentHashMap<Long, List<PendingPurchase>> openBatches = new ConcurrentHashMap<>();
+    // batches per product currently inside their transaction
+    private final ConcurrentHashMap<Long, Integer> applying = new ConcurrentHashMap<>();
+
+    public PurchaseCoalescer(
+            ProductStockRepository stockRepository,
+            ProductMapper mapper,
+            ProductCatalogCache catalogCache,
+            StockLedger ledger,
+            PurchaseRecordRepository purchaseRecords,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.config.purchase-coalescing.enabled:true}") boolean enabled,
+            @Value("${application.config.purchase-coalescing.window:1ms}") Duration window
+    ) {
+        this.stockRepository = stockRepository;
+        this.mapper = mapper;
+        this.catalogCache = catalogCache;
+        this.ledger = ledger;
+        this.purchaseRecords = purchaseRecords;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.window = window;
+    }
+
+    public boolean accepts(List<ProductPurchaseRequest> request) {
+        return enabled && request.size() == 1;
+    }
+
+    public ProductPurchaseResponse purchase(ProductPurchaseRequest request) {
+        return purchase(null, request);
+    }
+
+    /**
+     * A {@code purchaseKey} is recorded with the stock it took in the batch transaction, exactly like a
+     * keyed purchase through {@link ProductService#purchaseProducts(String, List)}.
+     */
+    public ProductPurchaseResponse purchase(String purchaseKey, ProductPurchaseRequest request) {
+        var pending = new PendingPurchase(request, purchaseKey, new CompletableFuture<>());
+        var leader = new boolean[1];
+        openBatches.compute(request.productId(), (productId, batch) -> {
+            if (batch == null) {
+                batch = new ArrayList<>();
+                leader[0] = true;
+            }
+            batch.add(pending);
+            return batch;
+        });
+        if (leader[0]) {
+            if (applying.containsKey(request.productId())) {
+                LockSupport.parkNanos(window.toNanos());
+            }
+            apply(request.productId(), openBatches.remove(request.productId()));
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void apply(Long productId, List<PendingPurchase> batch) {
+        List<Allocation> results;
+        applying.merge(productId, 1, Integer::sum);
+        try {
+            results = transactionTemplate.execute(status -> allocate(productId, batch));
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        } finally {
+            applying.computeIfPresent(productId, (id, count) -> count == 1 ? null : count - 1);
+        }
+        var taken = results.stream()
+                .map(Allocation::response)
+                .filter(Objects::nonNull)
+                .mapToDouble(ProductPurchaseResponse::quantity)
+                .sum();
+        ledger.taken(Map.of(productId, taken));
+        // only completed after the commit, so no caller sees stock that could still be rolled back
+        for (int i = 0; i < batch.size(); i++) {
+            var result = results.get(i);
+            if (result.response() != null) {
+                batch.get(i).result().complete(result.response());
+            } else {
+                batch.get(i).result().completeExceptionally(new ProductPurchaseException(result.error()));
+            }
+        }
+    }
+
+    /**
+     * Returns one allocation per pending purchase, with an error for those the remaining stock could not
+     * cover. A key that was already used, before or earlier in the batch, is answered from its record
+     * without taking stock. Like a direct purchase, the batch leaves the stock held by open reservations
+     * alone.
+     */
+    private List<Allocation> allocate(Long productId, List<PendingPurchase> batch) {
+        var product = stockRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new ProductPurchaseException("One or more products does not exist"));
+        var recorded = new HashMap<>(purchaseRecords.findAll(batch.stream()
+                .map(PendingPurchase::purchaseKey)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList()));
+        var records = new HashMap<String, List<ProductPurchaseResponse>>();
+        var held = ledger.reserved(productId);
+        var remaining = product.getAvailableQuantity();
+        var results = new ArrayList<Allocation>(batch.size());
+        for (var pending : batch) {
+            var quantity = pending.request().quantity();
+            var purchaseKey = pending.purchaseKey();
+            if (purchaseKey != null && recorded.containsKey(purchaseKey)) {
+                results.add(replay(recorded.get(purchaseKey), productId, quantity));
+            } else if (remaining - held >= quantity) {
+                remaining -= quantity;
+                var response = mapper.mapFromProductToProductPurchaseResponse(product, quantity);
+                results.add(new Allocation(response, null));
+                if (purchaseKey != null) {
+                    records.put(purchaseKey, List.of(response));
+                    recorded.put(purchaseKey, new RecordedPurchase(purchaseKey, Map.of(productId, response)));
+                }
+            } else {
+                results.add(new Allocation(null, "Insufficient stock quantity for product with ID:: " + productId));
+            }
+        }
+        if (remaining != product.getAvailableQuantity()) {
+            stockRepository.updateStock(productId, remaining);
+            purchaseRecords.insertAll(records, LocalDateTime.now());
+            catalogCache.invalidate(List.of(productId));
+        }
+        return results;
+    }
+
+    private static Allocation replay(RecordedPurchase recorded, Long productId, double quantity) {
+        try {
+            return new Allocation(recorded.replay(productId, quantity), null);
+        } catch (ProductPurchaseException e) {
+            return new Allocation(null, e.getMessage());
+        }
+    }
+
+    private record PendingPurchase(
+            ProductPurchaseRequest request,
+            String purchaseKey,
+            CompletableFuture<ProductPurchaseResponse> result
+    ) {
+    }
+
+    private record Allocation(
+            ProductPurchaseResponse response,
+            String error
+    ) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.ecommerce.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The stock taken by each keyed purchase and the releases applied to it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PurchaseRecordRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the purchases already made under any of {@code purchaseKeys}, keyed by purchase key, with
+     * the quantities they have not released yet.
+     */
+    public Map<String, RecordedPurchase> findAll(Collection<String> purchaseKeys) {
+        if (purchaseKeys.isEmpty()) {
+            return Map.of();
+        }
+        var lines = new HashMap<String, Map<Long, ProductPurchaseResponse>>();
+        jdbcTemplate.query("""
+                        select r.purchase_key, r.product_id, r.quantity - r.released_quantity as quantity, r.price, p.name, p.description
+                        from purchase_record r join product p on p.id = r.product_id
+                        where r.purchase_key in (:keys)""",
+                Map.of("keys", purchaseKeys),
+                rs -> {
+                    lines.computeIfAbsent(rs.getString("purchase_key"), key -> new HashMap<>()).put(
+                            rs.getLong("product_id"),
+                            new ProductPurchaseResponse(
+                                    rs.getLong("product_id"),
+                                    rs.getString("name"),
+                                    rs.getString("description"),
+                                    rs.getBigDecimal("price"),
+                                    rs.getDouble("quantity")
+                            )
+                    );
+                }
+        );
+        var purchases = new HashMap<String, RecordedPurchase>();
+        lines.forEach((purchaseKey, purchased) -> purchases.put(purchaseKey, new RecordedPurchase(purchaseKey, purchased)));
+        return purchases;
+    }
+
+    /**
+     * @param purchased the products taken, keyed by purchase key
+     */
+    public void insertAll(Map<String, List<ProductPurchaseResponse>> purchased, LocalDateTime now) {
+        var rows = purchased.entrySet().stream()
+                .flatMap(purchase -> purchase.getValue().stream()
+                        .map(line -> new MapSqlParameterSource()
+                                .addValue("purchaseKey", purchase.getKey())
+                                .addValue("productId", line.productId())
+                                .addValue("quantity", line.quantity())
+                                .addValue("price", line.price())
+                                .addValue("createdDate", Timestamp.valueOf(now))))
+                .toArray(SqlParameterSource[]::new);
+        if (rows.length > 0) {
+            jdbcTemplate.batchUpdate("""
+                            insert into purchase_record (purchase_key, product_id, quantity, price, released_quantity, created_date)
+                            values (:purchaseKey, :productId, :quantity, :price, 0, :createdDate)""",
+                    rows);
+        }
+    }
+
+    /**
+     * Returns the quantity not yet released per product ID, empty for an unknown purchase, and holds the
+     * row locks of the purchase until the surrounding transaction ends.
+     */
+    public Map<Long, Double> findReleasableForUpdate(String purchaseKey) {
+        var releasable = new HashMap<Long, Double>();
+        jdbcTemplate.query(
+                "select product_id, quantity - released_quantity as releasable from purchase_record where purchase_key = :key order by product_id for update",
+                Map.of("key", purchaseKey),
+                rs -> {
+                    releasable.put(rs.getLong("product_id"), rs.getDouble("releasable"));
+                }
+        );
+        return releasable;
+    }
+
+    public void addReleased(String purchaseKey, List<ProductPurchaseRequest> released) {
+        var rows = released.stream()
+                .map(line -> new MapSqlParameterSource()
+                        .addValue("purchaseKey", purchaseKey)
+                        .addValue("productId", line.productId())
+                        .addValue("quantity", line.quantity()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("""
+                        update purchase_record set released_quantity = released_quantity + :quantity
+                        where purchase_key = :purchaseKey and product_id = :productId""",
+                rows);
+    }
+
+    public boolean releaseExists(String releaseKey) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select count(*) > 0 from purchase_release where release_key = :key",
+                Map.of("key", releaseKey),
+                Boolean.class
+        ));
+    }
+
+    public void insertRelease(String releaseKey, String purchaseKey, LocalDateTime now) {
+        jdbcTemplate.update(
+                "insert into purchase_release (release_key, purchase_key, created_date) values (:releaseKey, :purchaseKey, :createdDate)",
+                new MapSqlParameterSource()
+                        .addValue("releaseKey", releaseKey)
+                        .addValue("purchaseKey", purchaseKey)
+                        .addValue("createdDate", Timestamp.valueOf(now))
+        );
+    }
+
+    public int deleteAllCreatedBefore(LocalDateTime before) {
+        var params = Map.of("before", Timestamp.valueOf(before));
+        return jdbcTemplate.update("delete from purchase_release where created_date < :before", params)
+                + jdbcTemplate.update("delete from purchase_record where created_date < :before", params);
+    }
+}
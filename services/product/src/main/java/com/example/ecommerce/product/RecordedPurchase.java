@@ -0,0 +1,29 @@
+package com.example.ecommerce.product;
+
+import com.example.ecommerce.exception.ProductPurchaseException;
+
+import java.util.Map;
+
+/**
+ * The products a keyed purchase took and has not released yet, at the price it was made at.
+ */
+public record RecordedPurchase(
+        String purchaseKey,
+        Map<Long, ProductPurchaseResponse> purchased
+) {
+
+    // quantities are doubles, an order's share summed from several lines may differ in the last bits
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Answers a purchase sent again under the same key without taking any stock. It may ask for the
+     * whole purchase or, like one order of a bulk purchase, for part of it, but never for more.
+     */
+    public ProductPurchaseResponse replay(Long productId, double quantity) {
+        var line = purchased.get(productId);
+        if (line == null || quantity > line.quantity() + TOLERANCE) {
+            throw new ProductPurchaseException("Purchase " + purchaseKey + " was already made with other products or released");
+        }
+        return new ProductPurchaseResponse(line.productId(), line.name(), line.description(), line.price(), quantity);
+    }
+}
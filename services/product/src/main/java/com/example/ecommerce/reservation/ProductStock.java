@@ -0,0 +1,57 @@
+package com.example.ecommerce.reservation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last known stock of one product and the quantity reserved from it, both kept as the raw bits of a
+ * double so they can be changed with compare-and-set.
+ */
+final class ProductStock {
+
+    private static final long UNKNOWN = Double.doubleToRawLongBits(Double.NaN);
+
+    private final AtomicLong available = new AtomicLong(UNKNOWN);
+    private final AtomicLong reserved = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    boolean isKnown() {
+        return available.get() != UNKNOWN;
+    }
+
+    long availableBits() {
+        return available.get();
+    }
+
+    /**
+     * Sets the stock read from the database unless it changed since {@code expectedBits} were read,
+     * in which case the read may predate the change and is dropped.
+     */
+    boolean refreshAvailable(long expectedBits, double quantity) {
+        return available.compareAndSet(expectedBits, Double.doubleToRawLongBits(quantity));
+    }
+
+    double reserved() {
+        return Double.longBitsToDouble(reserved.get());
+    }
+
+    boolean tryReserve(double quantity) {
+        while (true) {
+            var current = reserved.get();
+            var newReserved = Double.longBitsToDouble(current) + quantity;
+            // unknown stock holds nothing, e.g. an entry recreated after a failed load removed it
+            if (!isKnown() || Double.longBitsToDouble(available.get()) < newReserved) {
+                return false;
+            }
+            if (reserved.compareAndSet(current, Double.doubleToRawLongBits(newReserved))) {
+                return true;
+            }
+        }
+    }
+
+    void unreserve(double quantity) {
+        reserved.getAndUpdate(bits -> Double.doubleToRawLongBits(Double.longBitsToDouble(bits) - quantity));
+    }
+
+    void take(double quantity) {
+        available.getAndUpdate(bits -> bits == UNKNOWN ? bits : Double.doubleToRawLongBits(Double.longBitsToDouble(bits) - quantity));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ecommerce.reservation;
+
+import com.example.ecommerce.product.ProductPurchaseRequest;
+import com.example.ecommerce.product.ProductPurchaseResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/products/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final ReservationService service;
+
+    @PostMapping
+    public ResponseEntity<ReservationResponse> reserve(@RequestBody @NotEmpty List<@Valid ProductPurchaseRequest> request) {
+        return ResponseEntity.ok(service.reserve(request));
+    }
+
+    @PostMapping("/{reservation-id}/confirm")
+    public ResponseEntity<List<ProductPurchaseResponse>> confirm(@PathVariable("reservation-id") String reservationId) {
+        return ResponseEntity.ok(service.confirm(reservationId));
+    }
+
+    @PostMapping("/{reservation-id}/release")
+    public ResponseEntity<Void> release(@PathVariable("reservation-id") String reservationId) {
+        service.release(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+}
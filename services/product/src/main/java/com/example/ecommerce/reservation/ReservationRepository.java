@@ -0,0 +1,82 @@
+package com.example.ecommerce.reservation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class ReservationRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Map<Long, Double> findAvailableQuantities(Collection<Long> productIds) {
+        var quantities = new HashMap<Long, Double>();
+        if (productIds.isEmpty()) {
+            return quantities;
+        }
+        jdbcTemplate.query(
+                "select id, available_quantity from product where id in (:ids)",
+                Map.of("ids", productIds),
+                rs -> {
+                    quantities.put(rs.getLong("id"), rs.getDouble("available_quantity"));
+                }
+        );
+        return quantities;
+    }
+
+    public List<StockReservation> findAllExpiringAfter(LocalDateTime now) {
+        var reservations = new LinkedHashMap<String, StockReservation>();
+        jdbcTemplate.query(
+                "select reservation_id, product_id, quantity, expires_at from stock_reservation where expires_at > :now order by reservation_id",
+                Map.of("now", Timestamp.valueOf(now)),
+                rs -> {
+                    var expiresAt = rs.getTimestamp("expires_at").toLocalDateTime();
+                    reservations.computeIfAbsent(rs.getString("reservation_id"), id -> new StockReservation(
+                                    id,
+                                    new HashMap<>(),
+                                    expiresAt))
+                            .quantities()
+                            .put(rs.getLong("product_id"), rs.getDouble("quantity"));
+                }
+        );
+        return List.copyOf(reservations.values());
+    }
+
+    public void insertAll(List<StockReservation> reservations) {
+        var rows = reservations.stream()
+                .flatMap(reservation -> reservation.quantities().entrySet().stream()
+                        .map(line -> new MapSqlParameterSource()
+                                .addValue("reservationId", reservation.id())
+                                .addValue("productId", line.getKey())
+                                .addValue("quantity", line.getValue())
+                                .addValue("expiresAt", Timestamp.valueOf(reservation.expiresAt()))))
+                .toArray(SqlParameterSource[]::new);
+        if (rows.length > 0) {
+            jdbcTemplate.batchUpdate("""
+                            insert into stock_reservation (reservation_id, product_id, quantity, expires_at)
+                            values (:reservationId, :productId, :quantity, :expiresAt)""",
+                    rows);
+        }
+    }
+
+    public void deleteAll(Collection<String> reservationIds) {
+        if (!reservationIds.isEmpty()) {
+            jdbcTemplate.update("delete from stock_reservation where reservation_id in (:ids)", Map.of("ids", reservationIds));
+        }
+    }
+
+    public int deleteAllExpiredBefore(LocalDateTime now) {
+        return jdbcTemplate.update("delete from stock_reservation where expires_at <= :now", Map.of("now", Timestamp.valueOf(now)));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.ecommerce.reservation;
+
+import java.time.LocalDateTime;
+
+public record ReservationResponse(
+        String reservationId,
+        LocalDateTime expiresAt
+) {
+}
@@ -0,0 +1,143 @@
+package com.example.ecommerce.reservation;
+
+import com.example.ecommerce.exception.ProductPurchaseException;
+import com.example.ecommerce.product.ProductPurchaseRequest;
+import com.example.ecommerce.product.ProductPurchaseResponse;
+import com.example.ecommerce.product.ProductService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Holds stock for an order until it is confirmed, released or expires. Reserving only touches the
+ * {@link StockLedger}; the {@code stock_reservation} table is written behind in batches so that open
+ * reservations survive a restart. Stock is only taken from the {@code product} table on confirm, with
+ * the same conditional update as a direct purchase. Direct purchases leave the reserved quantities of
+ * the ledger alone, so reserved stock cannot be sold elsewhere.
+ */
+@Service
+@Slf4j
+public class ReservationService {
+
+    private final StockLedger ledger;
+    private final ReservationRepository repository;
+    private final ProductService productService;
+    private final Duration ttl;
+    private final ConcurrentHashMap<String, StockReservation> openReservations = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<JournalEntry> journal = new ConcurrentLinkedQueue<>();
+
+    public ReservationService(
+            StockLedger ledger,
+            ReservationRepository repository,
+            ProductService productService,
+            @Value("${application.config.reservations.ttl:10m}") Duration ttl
+    ) {
+        this.ledger = ledger;
+        this.repository = repository;
+        this.productService = productService;
+        this.ttl = ttl;
+    }
+
+    public ReservationResponse reserve(List<ProductPurchaseRequest> request) {
+        var quantities = request.stream()
+                .collect(Collectors.toMap(ProductPurchaseRequest::productId, ProductPurchaseRequest::quantity, Double::sum));
+        if (!ledger.tryReserve(quantities)) {
+            throw new ProductPurchaseException("Insufficient stock quantity to reserve the requested products");
+        }
+        var reservation = new StockReservation(UUID.randomUUID().toString(), quantities, LocalDateTime.now().plus(ttl));
+        openReservations.put(reservation.id(), reservation);
+        journal.add(new JournalEntry(reservation, true));
+        return new ReservationResponse(reservation.id(), reservation.expiresAt());
+    }
+
+    /**
+     * Takes the reserved stock from the {@code product} table. The reservation ends either way; if the
+     * stock was sold elsewhere in the meantime the confirmation fails like a purchase would.
+     */
+    public List<ProductPurchaseResponse> confirm(String reservationId) {
+        var reservation = end(reservationId);
+        try {
+            return productService.purchaseReservedProducts(reservation.quantities());
+        } finally {
+            ledger.unreserve(reservation.quantities());
+        }
+    }
+
+    public void release(String reservationId) {
+        ledger.unreserve(end(reservationId).quantities());
+    }
+
+    private StockReservation end(String reservationId) {
+        var reservation = openReservations.remove(reservationId);
+        if (reservation == null) {
+            throw new EntityNotFoundException("No open reservation found with ID:: " + reservationId);
+        }
+        journal.add(new JournalEntry(reservation, false));
+        if (reservation.expiresAt().isBefore(LocalDateTime.now())) {
+            ledger.unreserve(reservation.quantities());
+            throw new EntityNotFoundException("Reservation has expired:: " + reservationId);
+        }
+        return reservation;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreOpenReservations() {
+        var restored = repository.findAllExpiringAfter(LocalDateTime.now());
+        restored.forEach(reservation -> {
+            openReservations.put(reservation.id(), reservation);
+            ledger.restore(reservation.quantities());
+        });
+        log.info("Restored {} open stock reservations", restored.size());
+    }
+
+    /**
+     * Expires overdue reservations, writes the journal to the database and re-reads the stock of every
+     * product the ledger knows, so changes made by direct purchases show up within one interval.
+     */
+    @Scheduled(fixedDelayString = "${application.config.reservations.flush-interval-ms:1000}")
+    @Transactional
+    public void flush() {
+        var now = LocalDateTime.now();
+        openReservations.values().forEach(reservation -> {
+            if (reservation.expiresAt().isBefore(now) && openReservations.remove(reservation.id(), reservation)) {
+                ledger.unreserve(reservation.quantities());
+            }
+        });
+
+        // reservations opened and ended since the last flush never reach the table
+        var opened = new LinkedHashMap<String, StockReservation>();
+        var ended = new ArrayList<String>();
+        for (var entry = journal.poll(); entry != null; entry = journal.poll()) {
+            if (entry.open()) {
+                opened.put(entry.reservation().id(), entry.reservation());
+            } else if (opened.remove(entry.reservation().id()) == null) {
+                ended.add(entry.reservation().id());
+            }
+        }
+        repository.insertAll(List.copyOf(opened.values()));
+        repository.deleteAll(ended);
+        repository.deleteAllExpiredBefore(now);
+        ledger.refresh();
+    }
+
+    private record JournalEntry(
+            StockReservation reservation,
+            boolean open
+    ) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.ecommerce.reservation;
+
+import com.example.ecommerce.exception.ProductPurchaseException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of how much of each product is reserved. Reserve checks compare against the stock
+ * last read from the {@code product} table, which stays authoritative: it is re-read periodically and
+ * checked again when a reservation is confirmed. The view is per instance, so with several instances
+ * each one only sees its own reservations.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockLedger {
+
+    private final ReservationRepository repository;
+    private final ConcurrentHashMap<Long, ProductStock> stocks = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves every line or none. Only the first reservation of a product reads the database.
+     */
+    public boolean tryReserve(Map<Long, Double> quantities) {
+        if (quantities.values().stream().anyMatch(quantity -> quantity == null || quantity <= 0)) {
+            throw new ProductPurchaseException("Reserved quantities must be positive");
+        }
+        loadUnknown(quantities.keySet());
+        var reserved = new ArrayList<Map.Entry<Long, Double>>();
+        for (var line : quantities.entrySet()) {
+            // stock() rather than get(): a concurrent failed load may have removed the entry again
+            if (!stock(line.getKey()).tryReserve(line.getValue())) {
+                reserved.forEach(done -> stock(done.getKey()).unreserve(done.getValue()));
+                return false;
+            }
+            reserved.add(line);
+        }
+        return true;
+    }
+
+    public void unreserve(Map<Long, Double> quantities) {
+        quantities.forEach((productId, quantity) -> stock(productId).unreserve(quantity));
+    }
+
+    /**
+     * Restores reservations read back from the journal; they are not checked against the stock.
+     */
+    public void restore(Map<Long, Double> quantities) {
+        quantities.forEach((productId, quantity) -> stock(productId).unreserve(-quantity));
+    }
+
+    /**
+     * Lowers the known stock of products sold from the {@code product} table; products without
+     * reservations are not tracked.
+     */
+    public void taken(Map<Long, Double> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            var stock = stocks.get(productId);
+            if (stock != null) {
+                stock.take(quantity);
+            }
+        });
+    }
+
+    public double reserved(Long productId) {
+        var stock = stocks.get(productId);
+        return stock == null ? 0 : stock.reserved();
+    }
+
+    /**
+     * Re-reads the stock of every known product. A product whose stock changed while it was read, e.g.
+     * through {@link #taken(Map)}, keeps the newer value until the next refresh.
+     */
+    public void refresh() {
+        refresh(Set.copyOf(stocks.keySet()));
+    }
+
+    private Map<Long, Double> refresh(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        var before = new HashMap<Long, Long>();
+        productIds.forEach(productId -> {
+            var stock = stocks.get(productId);
+            if (stock != null) {
+                before.put(productId, stock.availableBits());
+            }
+        });
+        var availableQuantities = repository.findAvailableQuantities(productIds);
+        availableQuantities.forEach((productId, quantity) -> {
+            var stock = stocks.get(productId);
+            var expectedBits = before.get(productId);
+            // a product forgotten while it was read stays unknown until its next reservation loads it
+            if (stock != null && expectedBits != null) {
+                stock.refreshAvailable(expectedBits, quantity);
+            }
+        });
+        return availableQuantities;
+    }
+
+    private void loadUnknown(Collection<Long> productIds) {
+        var unknown = productIds.stream()
+                .filter(productId -> !stock(productId).isKnown())
+                .toList();
+        if (unknown.isEmpty()) {
+            return;
+        }
+        var availableQuantities = refresh(unknown);
+        if (availableQuantities.size() != unknown.size()) {
+            unknown.stream()
+                    .filter(productId -> !availableQuantities.containsKey(productId))
+                    .forEach(stocks::remove);
+            throw new ProductPurchaseException("One or more products does not exist");
+        }
+    }
+
+    private ProductStock stock(Long productId) {
+        return stocks.computeIfAbsent(productId, id -> new ProductStock());
+    }
+}
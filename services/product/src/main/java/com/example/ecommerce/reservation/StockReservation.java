@@ -0,0 +1,14 @@
+package com.example.ecommerce.reservation;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Reserved quantity per product ID.
+ */
+public record StockReservation(
+        String id,
+        Map<Long, Double> quantities,
+        LocalDateTime expiresAt
+) {
+}
@@ -0,0 +1,11 @@
+-- write-behind journal of the open reservations held in memory, reloaded on startup
+create table if not exists stock_reservation
+(
+    reservation_id varchar(36) not null,
+    product_id bigint not null constraint fk_stock_reservation_product references product,
+    quantity double precision not null,
+    expires_at timestamp(6) not null,
+    primary key (reservation_id, product_id)
+);
+
+create index if not exists idx_stock_reservation_expires_at on stock_reservation (expires_at);
@@ -0,0 +1,4 @@
+-- supports the category filter with a price range or price sort, and doubles as the foreign key index
+create index if not exists idx_product_category_id_price on product (category_id, price, id);
+create index if not exists idx_product_price on product (price, id);
+create index if not exists idx_product_name on product (name, id);
@@ -0,0 +1,24 @@
+-- stock taken per keyed purchase, so that releases can be bounded by what the purchase took and a
+-- purchase sent again is answered with the price it was made at
+create table if not exists purchase_record
+(
+    purchase_key varchar(100) not null,
+    product_id bigint not null constraint fk_purchase_record_product references product,
+    quantity double precision not null,
+    price numeric(38, 2),
+    released_quantity double precision not null default 0,
+    created_date timestamp(6) not null,
+    primary key (purchase_key, product_id)
+);
+
+create index if not exists idx_purchase_record_created_date on purchase_record (created_date);
+
+-- one row per applied release, a release sent again is recognised by its key and not applied twice
+create table if not exists purchase_release
+(
+    release_key varchar(200) not null primary key,
+    purchase_key varchar(100) not null,
+    created_date timestamp(6) not null
+);
+
+create index if not exists idx_purchase_release_created_date on purchase_release (created_date);
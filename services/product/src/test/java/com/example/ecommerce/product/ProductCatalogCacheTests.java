@@ -0,0 +1,144 @@
+package com.example.ecommerce.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.DigestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProductCatalogCacheTests {
+
+    private ProductCatalogCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCatalogCache(new SimpleMeterRegistry(), new ObjectMapper(), 100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void productShouldBeLoadedOnceUntilInvalidated() {
+        // Given
+        cache.product(1L, () -> load(1L, 10));
+
+        // When
+        var cached = cache.product(1L, () -> load(1L, 10));
+        cache.invalidate(List.of(1L));
+        var reloaded = cache.product(1L, () -> load(1L, 9));
+
+        // Then
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(10, cached.body().availableQuantity());
+        Assertions.assertEquals(9, reloaded.body().availableQuantity());
+    }
+
+    @Test
+    void eTagShouldOnlyChangeWithTheContent() {
+        // Given
+        var first = cache.product(1L, () -> load(1L, 10));
+        cache.invalidate(List.of(1L));
+        var unchanged = cache.product(1L, () -> load(1L, 10));
+        cache.invalidate(List.of(1L));
+
+        // When
+        var changed = cache.product(1L, () -> load(1L, 9));
+
+        // Then
+        Assertions.assertEquals(first.eTag(), unchanged.eTag());
+        Assertions.assertNotEquals(first.eTag(), changed.eTag());
+    }
+
+    @Test
+    void invalidatingAProductShouldAlsoDropTheListings() {
+        // Given
+        var filter = new ProductFilter(null, null, null, false);
+        var pageable = PageRequest.of(0, 20);
+        cache.listing(filter, pageable, () -> page(load(1L, 10), load(2L, 5)));
+
+        // When
+        cache.invalidate(List.of(2L));
+        var listing = cache.listing(filter, pageable, () -> page(load(1L, 10), load(2L, 4)));
+
+        // Then
+        Assertions.assertEquals(4, listing.body().content().get(1).availableQuantity());
+    }
+
+    @Test
+    void stockChangeShouldKeepListingsThatDoNotShowTheProduct() {
+        // Given
+        var filter = new ProductFilter(null, null, null, false);
+        var pageable = PageRequest.of(0, 20);
+        cache.listing(filter, pageable, () -> page(load(1L, 10)));
+
+        // When
+        cache.invalidate(List.of(2L));
+        cache.listing(filter, pageable, () -> page(load(1L, 10)));
+
+        // Then
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    void stockChangeShouldDropListingsThatDependOnStock() {
+        // Given
+        var inStock = new ProductFilter(null, null, null, true);
+        var all = new ProductFilter(null, null, null, false);
+        var byStock = PageRequest.of(0, 20, Sort.by(ProductSortField.AVAILABLE_QUANTITY.property()));
+        cache.listing(inStock, PageRequest.of(0, 20), () -> page(load(1L, 10)));
+        cache.listing(all, byStock, () -> page(load(1L, 10)));
+
+        // When
+        cache.invalidate(List.of(2L));
+        cache.listing(inStock, PageRequest.of(0, 20), () -> page(load(1L, 10), load(2L, 1)));
+        cache.listing(all, byStock, () -> page(load(2L, 1), load(1L, 10)));
+
+        // Then
+        Assertions.assertEquals(6, loads.get());
+    }
+
+    @Test
+    void newProductShouldDropEveryListing() {
+        // Given
+        var filter = new ProductFilter(null, null, null, false);
+        var pageable = PageRequest.of(0, 20);
+        cache.listing(filter, pageable, () -> page(load(1L, 10)));
+
+        // When
+        cache.invalidateListings();
+        var listing = cache.listing(filter, pageable, () -> page(load(1L, 10), load(2L, 5)));
+
+        // Then
+        Assertions.assertEquals(2, listing.body().content().size());
+    }
+
+    @Test
+    void eTagShouldDigestTheSerializedBody() throws Exception {
+        // Given
+        var product = load(1L, 10);
+
+        // When
+        var entry = cache.product(1L, () -> product);
+
+        // Then
+        var expected = "\"" + DigestUtils.md5DigestAsHex(new ObjectMapper().writeValueAsBytes(product)) + "\"";
+        Assertions.assertEquals(expected, entry.eTag());
+    }
+
+    private static ProductPage page(ProductResponse... products) {
+        return new ProductPage(List.of(products), 0, 20, products.length, 1);
+    }
+
+    private ProductResponse load(Long id, double availableQuantity) {
+        loads.incrementAndGet();
+        return new ProductResponse(id, "Product " + id, "Description", availableQuantity, new BigDecimal("9.99"), 1L, "Category", "Category description");
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ecommerce.product;
+
+import com.example.ecommerce.category.Category;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class ProductRepositoryTests {
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Category keyboards;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        keyboards = entityManager.persist(Category.builder().name("Keyboards").description("Computer Keyboards").build());
+        var mice = entityManager.persist(Category.builder().name("Mice").description("Computer Mice").build());
+        IntStream.rangeClosed(1, 10).forEach(i -> entityManager.persist(Product.builder()
+                .name("Product " + i)
+                .availableQuantity(i % 3 == 0 ? 0 : i)
+                .price(BigDecimal.valueOf(i * 10L))
+                .category(i % 2 == 0 ? keyboards : mice)
+                .build()));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findPageShouldReadCategoriesWithoutAQueryPerProduct() {
+        // Given
+        var pageable = PageRequest.of(0, 4, Sort.by("id"));
+
+        // When
+        var page = repository.findPage(new ProductFilter(null, null, null, false), pageable);
+
+        // Then
+        Assertions.assertEquals(4, page.getContent().size());
+        Assertions.assertEquals(10, page.getTotalElements());
+        Assertions.assertTrue(page.getContent().stream().allMatch(product -> product.categoryName() != null));
+        // the page and its count
+        Assertions.assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findPageShouldApplyEveryFilter() {
+        // Given
+        var pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")));
+
+        // When
+        var page = repository.findPage(
+                new ProductFilter(keyboards.getId(), BigDecimal.valueOf(20), BigDecimal.valueOf(80), true), pageable);
+
+        // Then
+        // keyboards priced 20 to 80 are products 2, 4, 6 and 8, product 6 is out of stock
+        Assertions.assertEquals(
+                List.of(80, 40, 20),
+                page.getContent().stream().map(product -> product.price().intValue()).toList()
+        );
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.ecommerce.product;
+
+import com.example.ecommerce.exception.ProductPurchaseException;
+import com.example.ecommerce.reservation.ReservationRepository;
+import com.example.ecommerce.reservation.StockLedger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// every purchase has to commit on its own thread, so the test itself runs without a transaction
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false"
+})
+@Import({
+        ProductService.class,
+        ProductMapper.class,
+        ProductStockRepository.class,
+        ProductCatalogCache.class,
+        PurchaseCoalescer.class,
+        PurchaseRecordRepository.class,
+        StockLedger.class,
+        ReservationRepository.class,
+        SimpleMeterRegistry.class,
+        ObjectMapper.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductServiceConcurrencyTests {
+
+    private static final int THREADS = 32;
+    private static final int PURCHASES_PER_THREAD = 25;
+    private static final double INITIAL_STOCK = 300;
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private PurchaseCoalescer coalescer;
+
+    @Autowired
+    private ProductRepository repository;
+
+    private final AtomicInteger sold = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private double elapsedSeconds;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void concurrentPurchasesOfOneProductShouldNeverOversell() throws Exception {
+        // Given
+        var product = saveProduct(INITIAL_STOCK);
+
+        // When
+        hammer(() -> service.purchaseProducts(List.of(new ProductPurchaseRequest(product.getId(), 1))));
+
+        // Then
+        assertSoldOut(product);
+    }
+
+    @Test
+    void concurrentCoalescedPurchasesOfOneProductShouldNeverOversell() throws Exception {
+        // Given
+        var product = saveProduct(INITIAL_STOCK);
+
+        // When
+        hammer(() -> coalescer.purchase(new ProductPurchaseRequest(product.getId(), 1)));
+
+        // Then
+        assertSoldOut(product);
+    }
+
+    @Test
+    void purchaseShouldRollBackAllProductsWhenOneIsOutOfStock() {
+        // Given
+        var available = saveProduct(10);
+        var scarce = saveProduct(1);
+
+        // When
+        Assertions.assertThrows(ProductPurchaseException.class, () -> service.purchaseProducts(List.of(
+                new ProductPurchaseRequest(available.getId(), 5),
+                new ProductPurchaseRequest(scarce.getId(), 2)
+        )));
+
+        // Then
+        Assertions.assertEquals(10, repository.findById(available.getId()).orElseThrow().getAvailableQuantity());
+        Assertions.assertEquals(1, repository.findById(scarce.getId()).orElseThrow().getAvailableQuantity());
+    }
+
+    @Test
+    void purchaseShouldRejectUnknownProducts() {
+        // Given
+        var product = saveProduct(10);
+
+        // When
+        Assertions.assertThrows(ProductPurchaseException.class, () -> service.purchaseProducts(List.of(
+                new ProductPurchaseRequest(product.getId(), 1),
+                new ProductPurchaseRequest(product.getId() + 1000, 1)
+        )));
+
+        // Then
+        Assertions.assertEquals(10, repository.findById(product.getId()).orElseThrow().getAvailableQuantity());
+    }
+
+    private void hammer(Runnable purchase) throws Exception {
+        var start = new CountDownLatch(1);
+        var startedAt = System.nanoTime();
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            var results = new ArrayList<Future<?>>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                        try {
+                            purchase.run();
+                            sold.incrementAndGet();
+                        } catch (ProductPurchaseException | DataAccessException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        }
+        elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+    }
+
+    private void assertSoldOut(Product product) {
+        var remaining = repository.findById(product.getId()).orElseThrow().getAvailableQuantity();
+        var attempts = THREADS * PURCHASES_PER_THREAD;
+        Assertions.assertEquals(attempts, sold.get() + rejected.get());
+        Assertions.assertTrue(remaining >= 0, "Stock went negative: " + remaining);
+        Assertions.assertEquals(INITIAL_STOCK, remaining + sold.get(),
+                String.format("%d purchases at %.0f/s left %.0f in stock", sold.get(), attempts / elapsedSeconds, remaining));
+        Assertions.assertEquals(INITIAL_STOCK, (double) sold.get(), "Every unit should be sold when demand exceeds stock");
+    }
+
+    private Product saveProduct(double availableQuantity) {
+        return repository.save(Product.builder()
+                .name("Hot product")
+                .availableQuantity(availableQuantity)
+                .price(BigDecimal.TEN)
+                .build());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.ecommerce.product;
+
+import com.example.ecommerce.exception.ProductPurchaseException;
+import com.example.ecommerce.reservation.StockLedger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Hibernate creates the product tables, the purchase records come from their migration
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/migration/V5__create_purchase_record.sql"
+})
+@Import({
+        ProductService.class,
+        ProductMapper.class,
+        ProductStockRepository.class,
+        ProductCatalogCache.class,
+        PurchaseRecordRepository.class,
+        StockLedger.class,
+        SimpleMeterRegistry.class,
+        ObjectMapper.class
+})
+public class PurchaseReleaseTests {
+
+    @Autowired
+    private ProductService service;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void releaseSentTwiceShouldGiveTheStockBackOnce() {
+        // Given
+        var product = saveProduct(10);
+        service.purchaseProducts("order-1", List.of(new ProductPurchaseRequest(product.getId(), 4)));
+
+        // When
+        service.releasePurchase("order-1", "order-1", List.of(new ProductPurchaseRequest(product.getId(), 4)));
+        service.releasePurchase("order-1", "order-1", List.of(new ProductPurchaseRequest(product.getId(), 4)));
+
+        // Then
+        Assertions.assertEquals(10, availableQuantity(product));
+    }
+
+    @Test
+    void releasesOfOnePurchaseShouldBeAppliedPerReleaseKey() {
+        // Given
+        var product = saveProduct(10);
+        service.purchaseProducts("bulk-1", List.of(new ProductPurchaseRequest(product.getId(), 6)));
+
+        // When
+        service.releasePurchase("bulk-1", "bulk-1:order-1", List.of(new ProductPurchaseRequest(product.getId(), 2)));
+        service.releasePurchase("bulk-1", "bulk-1:order-2", List.of(new ProductPurchaseRequest(product.getId(), 3)));
+
+        // Then
+        Assertions.assertEquals(9, availableQuantity(product));
+    }
+
+    @Test
+    void releaseShouldNotGiveBackMoreThanThePurchaseTook() {
+        // Given
+        var product = saveProduct(10);
+        var other = saveProduct(10);
+        service.purchaseProducts("order-1", List.of(new ProductPurchaseRequest(product.getId(), 4)));
+        service.releasePurchase("order-1", "order-1:first", List.of(new ProductPurchaseRequest(product.getId(), 3)));
+
+        // When
+        Assertions.assertThrows(ProductPurchaseException.class, () -> service.releasePurchase(
+                "order-1", "order-1:second", List.of(new ProductPurchaseRequest(product.getId(), 2))));
+        Assertions.assertThrows(ProductPurchaseException.class, () -> service.releasePurchase(
+                "order-1", "order-1:third", List.of(new ProductPurchaseRequest(other.getId(), 1))));
+
+        // Then
+        Assertions.assertEquals(9, availableQuantity(product));
+        Assertions.assertEquals(10, availableQuantity(other));
+    }
+
+    @Test
+    void releaseOfAnUnknownPurchaseShouldBeRejected() {
+        // Given
+        var product = saveProduct(10);
+
+        // When
+        Assertions.assertThrows(EntityNotFoundException.class, () -> service.releasePurchase(
+                "order-1", "order-1", List.of(new ProductPurchaseRequest(product.getId(), 1))));
+
+        // Then
+        Assertions.assertEquals(10, availableQuantity(product));
+    }
+
+    @Test
+    void purchaseSentAgainShouldBeAnsweredWithoutTakingStock() {
+        // Given
+        var product = saveProduct(10);
+        var first = service.purchaseProducts("order-1", List.of(new ProductPurchaseRequest(product.getId(), 4)));
+
+        // When
+        var replayed = service.purchaseProducts("order-1", List.of(new ProductPurchaseRequest(product.getId(), 4)));
+
+        // Then
+        Assertions.assertEquals(1, replayed.size());
+        Assertions.assertEquals(first.getFirst().productId(), replayed.getFirst().productId());
+        Assertions.assertEquals(4, replayed.getFirst().quantity());
+        Assertions.assertEquals(0, first.getFirst().price().compareTo(replayed.getFirst().price()));
+        Assertions.assertEquals(6, availableQuantity(product));
+    }
+
+    @Test
+    void purchaseSentAgainShouldNotAskForMoreThanTheRecordedPurchase() {
+        // Given
+        var product = saveProduct(10);
+        var other = saveProduct(10);
+        service.purchaseProducts("bulk-1", List.of(new ProductPurchaseRequest(product.getId(), 4)));
+
+        // When
+        var share = service.purchaseProducts("bulk-1", List.of(new ProductPurchaseRequest(product.getId(), 1)));
+        Assertions.assertThrows(ProductPurchaseException.class,
+                () -> service.purchaseProducts("bulk-1", List.of(new ProductPurchaseRequest(product.getId(), 5))));
+        Assertions.assertThrows(ProductPurchaseException.class,
+                () -> service.purchaseProducts("bulk-1", List.of(new ProductPurchaseRequest(other.getId(), 1))));
+
+        // Then
+        Assertions.assertEquals(1, share.getFirst().quantity());
+        Assertions.assertEquals(6, availableQuantity(product));
+        Assertions.assertEquals(10, availableQuantity(other));
+    }
+
+    private double availableQuantity(Product product) {
+        entityManager.clear();
+        return repository.findById(product.getId()).orElseThrow().getAvailableQuantity();
+    }
+
+    private Product saveProduct(double availableQuantity) {
+        return entityManager.persistAndFlush(Product.builder()
+                .name("Released product")
+                .availableQuantity(availableQuantity)
+                .price(BigDecimal.TEN)
+                .build());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.ecommerce.reservation;
+
+import com.example.ecommerce.exception.ProductPurchaseException;
+import com.example.ecommerce.product.Product;
+import com.example.ecommerce.product.ProductCatalogCache;
+import com.example.ecommerce.product.ProductMapper;
+import com.example.ecommerce.product.ProductPurchaseRequest;
+import com.example.ecommerce.product.ProductRepository;
+import com.example.ecommerce.product.ProductService;
+import com.example.ecommerce.product.ProductStockRepository;
+import com.example.ecommerce.product.PurchaseRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Hibernate creates the product tables, the reservation journal comes from its migration
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/migration/V3__create_stock_reservation.sql"
+})
+@Import({
+        ReservationService.class,
+        ReservationRepository.class,
+        StockLedger.class,
+        ProductService.class,
+        ProductMapper.class,
+        ProductStockRepository.class,
+        ProductCatalogCache.class,
+        PurchaseRecordRepository.class,
+        SimpleMeterRegistry.class,
+        ObjectMapper.class
+})
+public class ReservationServiceTests {
+
+    @Autowired
+    private ReservationService service;
+
+    @Autowired
+    private StockLedger ledger;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reserveShouldNotHoldMoreThanTheAvailableStock() {
+        // Given
+        var product = saveProduct(5);
+        service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 3)));
+
+        // When
+        Assertions.assertThrows(ProductPurchaseException.class,
+                () -> service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 3))));
+
+        // Then
+        Assertions.assertEquals(3, ledger.reserved(product.getId()));
+        Assertions.assertEquals(5, availableQuantity(product));
+    }
+
+    @Test
+    void confirmShouldTakeTheReservedStock() {
+        // Given
+        var product = saveProduct(5);
+        var reservation = service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 3)));
+
+        // When
+        var purchased = service.confirm(reservation.reservationId());
+
+        // Then
+        Assertions.assertEquals(1, purchased.size());
+        Assertions.assertEquals(0, ledger.reserved(product.getId()));
+        Assertions.assertEquals(2, availableQuantity(product));
+    }
+
+    @Test
+    void releaseShouldMakeTheStockAvailableAgain() {
+        // Given
+        var product = saveProduct(5);
+        var reservation = service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 5)));
+
+        // When
+        service.release(reservation.reservationId());
+
+        // Then
+        Assertions.assertDoesNotThrow(() -> service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 5))));
+        Assertions.assertEquals(5, availableQuantity(product));
+    }
+
+    @Test
+    void purchaseShouldNotTakeReservedStock() {
+        // Given
+        var product = saveProduct(5);
+        var reservation = service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 3)));
+
+        // When
+        Assertions.assertThrows(ProductPurchaseException.class,
+                () -> productService.purchaseProducts(List.of(new ProductPurchaseRequest(product.getId(), 3))));
+        var purchased = productService.purchaseProducts(List.of(new ProductPurchaseRequest(product.getId(), 2)));
+
+        // Then
+        Assertions.assertEquals(1, purchased.size());
+        Assertions.assertDoesNotThrow(() -> service.confirm(reservation.reservationId()));
+        Assertions.assertEquals(0, availableQuantity(product));
+    }
+
+    @Test
+    void reserveShouldRejectQuantitiesThatAreNotPositive() {
+        // Given
+        var product = saveProduct(5);
+        service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 5)));
+
+        // When
+        Assertions.assertThrows(ProductPurchaseException.class,
+                () -> service.reserve(List.of(new ProductPurchaseRequest(product.getId(), -5))));
+
+        // Then
+        Assertions.assertEquals(5, ledger.reserved(product.getId()));
+    }
+
+    @Test
+    void reserveShouldHoldNothingWhenOneProductIsShort() {
+        // Given
+        var available = saveProduct(5);
+        var scarce = saveProduct(1);
+
+        // When
+        Assertions.assertThrows(ProductPurchaseException.class, () -> service.reserve(List.of(
+                new ProductPurchaseRequest(available.getId(), 2),
+                new ProductPurchaseRequest(scarce.getId(), 2)
+        )));
+
+        // Then
+        Assertions.assertEquals(0, ledger.reserved(available.getId()));
+        Assertions.assertEquals(0, ledger.reserved(scarce.getId()));
+    }
+
+    // the journal is held by the context, so reservations of other tests must not be in it
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void flushShouldJournalOnlyOpenReservations() {
+        // Given
+        var product = saveProduct(5);
+        var open = service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 1)));
+        var released = service.reserve(List.of(new ProductPurchaseRequest(product.getId(), 1)));
+        service.release(released.reservationId());
+
+        // When
+        service.flush();
+
+        // Then
+        var journaled = jdbcTemplate.queryForList("select reservation_id from stock_reservation", String.class);
+        Assertions.assertEquals(List.of(open.reservationId()), journaled);
+    }
+
+    private Product saveProduct(double availableQuantity) {
+        return entityManager.persistAndFlush(Product.builder()
+                .name("Reserved product")
+                .availableQuantity(availableQuantity)
+                .price(BigDecimal.TEN)
+                .build());
+    }
+
+    private double availableQuantity(Product product) {
+        entityManager.clear();
+        return repository.findById(product.getId()).orElseThrow().getAvailableQuantity();
+    }
+}
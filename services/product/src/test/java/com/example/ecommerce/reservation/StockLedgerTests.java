@@ -0,0 +1,54 @@
+package com.example.ecommerce.reservation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Map;
+
+public class StockLedgerTests {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    private ReservationRepository repository;
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ReservationRepository.class);
+        ledger = new StockLedger(repository);
+        Mockito.when(repository.findAvailableQuantities(Mockito.anyCollection())).thenReturn(Map.of(PRODUCT_ID, 5.0));
+        Assertions.assertTrue(ledger.tryReserve(Map.of(PRODUCT_ID, 1.0)));
+    }
+
+    @Test
+    void refreshShouldPickUpStockChangedInTheDatabase() {
+        // Given
+        Mockito.when(repository.findAvailableQuantities(Mockito.anyCollection())).thenReturn(Map.of(PRODUCT_ID, 2.0));
+
+        // When
+        ledger.refresh();
+
+        // Then
+        Assertions.assertFalse(ledger.tryReserve(Map.of(PRODUCT_ID, 2.0)));
+        Assertions.assertTrue(ledger.tryReserve(Map.of(PRODUCT_ID, 1.0)));
+    }
+
+    @Test
+    void refreshShouldNotUndoStockTakenWhileItWasRead() {
+        // Given
+        Mockito.when(repository.findAvailableQuantities(Mockito.anyCollection())).thenAnswer(invocation -> {
+            // the purchase commits and lowers the ledger after the stale row was read
+            ledger.taken(Map.of(PRODUCT_ID, 3.0));
+            return Map.of(PRODUCT_ID, 5.0);
+        });
+
+        // When
+        ledger.refresh();
+
+        // Then
+        Assertions.assertFalse(ledger.tryReserve(Map.of(PRODUCT_ID, 2.0)));
+        Assertions.assertTrue(ledger.tryReserve(Map.of(PRODUCT_ID, 1.0)));
+    }
+}